@@ -1,5 +1,8 @@
 package ru.practicum.shareit.booking;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +14,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
@@ -33,28 +37,43 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> updateStatuses(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/owner/batch", userId, decisions);
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size,
+                                              LocalDateTime afterStart, Long afterId) {
+        return getPage("", userId, state, from, size, afterStart, afterId);
+    }
+
+    public ResponseEntity<Object> getOwnerBookings(long userId, BookingState state, Integer from, Integer size,
+                                                   LocalDateTime afterStart, Long afterId) {
+        return getPage("/owner", userId, state, from, size, afterStart, afterId);
+    }
+
+    private ResponseEntity<Object> getPage(String path, long userId, BookingState state, Integer from, Integer size,
+                                           LocalDateTime afterStart, Long afterId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "?state={state}&from={from}&size={size}";
+        if (afterStart != null && afterId != null) {
+            parameters.put("afterStart", afterStart);
+            parameters.put("afterId", afterId);
+            query += "&afterStart={afterStart}&afterId={afterId}";
+        }
+        return get(path + query, userId, parameters);
     }
 
     public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> bookItems(long userId, List<BookItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
@@ -2,14 +2,22 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
@@ -28,15 +36,28 @@ public class BookingController {
 		return bookingClient.updateStatus(userId, bookingId, approved);
 	}
 
+	@PatchMapping("/owner/batch")
+	public ResponseEntity<Object> updateStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+												 @RequestBody @NotEmpty @Size(max = 100)
+												 List<@Valid BookingDecisionDto> decisions) {
+		log.info("Updating booking statuses, userId={}, count={}", userId, decisions.size());
+		return bookingClient.updateStatuses(userId, decisions);
+	}
+
 	@GetMapping
 	public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 											  @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
 											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+											  @RequestParam(name = "afterStart", required = false)
+											  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+											  @Positive @RequestParam(name = "afterId", required = false) Long afterId) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get bookings, state={}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookings(userId, state, from, size);
+		checkCursor(afterStart, afterId);
+		log.info("Get bookings, state={}, userId={}, from={}, size={}, afterStart={}, afterId={}",
+				stateParam, userId, from, size, afterStart, afterId);
+		return bookingClient.getBookings(userId, state, from, size, afterStart, afterId);
 	}
 
 	@PostMapping
@@ -46,6 +67,13 @@ public class BookingController {
 		return bookingClient.bookItem(userId, requestDto);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<Object> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+											@RequestBody @NotEmpty @Size(max = 100) List<BookItemRequestDto> requestDtos) {
+		log.info("Create bookings, userId={}, count={}", userId, requestDtos.size());
+		return bookingClient.bookItems(userId, requestDtos);
+	}
+
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 											 @PathVariable Long bookingId) {
@@ -57,10 +85,21 @@ public class BookingController {
 	public ResponseEntity<Object> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 												   @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
 												   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-												   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+												   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+												   @RequestParam(name = "afterStart", required = false)
+												   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+												   @Positive @RequestParam(name = "afterId", required = false) Long afterId) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get owner bookings, state={}, ownerId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getOwnerBookings(userId, state, from, size);
+		checkCursor(afterStart, afterId);
+		log.info("Get owner bookings, state={}, ownerId={}, from={}, size={}, afterStart={}, afterId={}",
+				stateParam, userId, from, size, afterStart, afterId);
+		return bookingClient.getOwnerBookings(userId, state, from, size, afterStart, afterId);
+	}
+
+	private static void checkCursor(LocalDateTime afterStart, Long afterId) {
+		if ((afterStart == null) != (afterId == null)) {
+			throw new IllegalArgumentException("afterStart and afterId must be set together");
+		}
 	}
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionDto {
+	@NotNull
+	@Positive
+	private Long bookingId;
+
+	@NotNull
+	private Boolean approved;
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.client;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -9,6 +10,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
@@ -28,7 +30,13 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
+    }
+
+    // условный GET: If-None-Match клиента уходит на сервер, 304 и ETag возвращаются клиенту
+    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                         @Nullable String ifNoneMatch) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, ifNoneMatch);
     }
 
     protected <T> ResponseEntity<Object> post(String path, T body) {
@@ -40,7 +48,21 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
+    }
+
+    // тело копируется в запрос к серверу по мере чтения, без буферизации целиком в памяти шлюза
+    protected ResponseEntity<Object> postStream(String path, long userId, MediaType contentType, InputStream body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setContentType(contentType);
+        try {
+            return prepareGatewayResponse(rest.execute(path, HttpMethod.POST, request -> {
+                request.getHeaders().putAll(headers);
+                StreamUtils.copy(body, request.getBody());
+            }, rest.responseEntityExtractor(Object.class)));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
@@ -48,7 +70,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null);
     }
 
     protected <T> ResponseEntity<Object> patch(String path, T body) {
@@ -64,7 +86,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
     }
 
     protected ResponseEntity<Object> delete(String path) {
@@ -76,11 +98,16 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                          @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -111,6 +138,9 @@ public class BaseClient {
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (response.getHeaders().getETag() != null) {
+            responseBuilder.eTag(response.getHeaders().getETag());
+        }
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
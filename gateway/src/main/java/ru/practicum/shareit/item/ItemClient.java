@@ -4,6 +4,7 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -12,6 +13,11 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
 
@@ -31,17 +37,53 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
-    public ResponseEntity<Object> getUserItems(long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size, String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of("from", from, "size", size);
+        return get("?from={from}&size={size}", userId, parameters, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> suggestNames(String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of("prefix", prefix, "size", size);
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> getById(long itemId) {
-        return get("/" + itemId, itemId);
+    public ResponseEntity<Object> importItems(long userId, MediaType contentType, InputStream body) {
+        return postStream("/import", userId, contentType, body);
     }
 
-    public ResponseEntity<Object> searchItem(String text) {
+    public ResponseEntity<Object> getById(long itemId, String ifNoneMatch) {
+        return get("/" + itemId, null, null, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder query = new StringBuilder("/" + itemId + "/availability");
+        String separator = "?";
+        if (from != null) {
+            parameters.put("from", from);
+            query.append(separator).append("from={from}");
+            separator = "&";
+        }
+        if (to != null) {
+            parameters.put("to", to);
+            query.append(separator).append("to={to}");
+        }
+        return get(query.toString(), null, parameters);
+    }
 
-        return get("/search" + text);
+    public ResponseEntity<Object> searchItem(String text, LocalDateTime start, LocalDateTime end,
+                                             Integer from, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "/search?text={text}&from={from}&size={size}";
+        if (start != null) {
+            parameters.put("start", start);
+            parameters.put("end", end);
+            query += "&start={start}&end={end}";
+        }
+        return get(query, null, parameters);
     }
 
     public ResponseEntity<Object> addNewItem(long userId, ItemDto itemDto) {
@@ -1,13 +1,25 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
     private final ItemClient itemClient;
 
@@ -19,13 +31,44 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@PathVariable long itemId) {
-        return itemClient.getById(itemId);
+    public ResponseEntity<Object> getById(@PathVariable long itemId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return itemClient.getById(itemId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable long itemId,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        return itemClient.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam("text") String text) {
-        return itemClient.searchItem(text);
+    public ResponseEntity<Object> searchItems(@RequestParam("text") String text,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        if ((start == null) != (end == null)) {
+            throw new IllegalArgumentException("start and end must be set together");
+        }
+        if (start != null && !end.isAfter(start)) {
+            throw new IllegalArgumentException("end must be after start");
+        }
+        return itemClient.searchItem(text, start, end, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@RequestParam("prefix") String prefix,
+                                               @Positive @Max(50) @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.suggestNames(prefix, size);
     }
 
     @PostMapping
@@ -34,9 +77,19 @@ public class ItemController {
         return itemClient.addNewItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Object> importItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream body) {
+        return itemClient.importItems(userId, contentType, body);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemClient.getUserItems(userId);
+    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return itemClient.getUserItems(userId, from, size, ifNoneMatch);
     }
 
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,6 +27,13 @@ public class BookingController {
         return bookingService.addBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BookingResponseDto> createBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestBody List<BookingRequestDto> bookingDtos) {
+        return bookingService.addBookings(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto approveBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @PathVariable Long bookingId,
@@ -30,6 +41,12 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/owner/batch")
+    public List<BookingDecisionResultDto> approveBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.approveBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @PathVariable Long bookingId) {
@@ -38,13 +55,25 @@ public class BookingController {
 
     @GetMapping
     public List<BookingResponseDto> getBookingsForUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                       @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getUserBookings(userId, state);
+                                                       @RequestParam(defaultValue = "ALL") String state,
+                                                       @RequestParam(defaultValue = "0") int from,
+                                                       @RequestParam(defaultValue = "10") int size,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                       LocalDateTime afterStart,
+                                                       @RequestParam(required = false) Long afterId) {
+        return bookingService.getUserBookings(userId, state, from, size, afterStart, afterId);
     }
 
     @GetMapping("/owner")
     public List<BookingResponseDto> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                        @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getOwnerBookings(ownerId, state);
+                                                        @RequestParam(defaultValue = "ALL") String state,
+                                                        @RequestParam(defaultValue = "0") int from,
+                                                        @RequestParam(defaultValue = "10") int size,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime afterStart,
+                                                        @RequestParam(required = false) Long afterId) {
+        return bookingService.getOwnerBookings(ownerId, state, from, size, afterStart, afterId);
     }
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+@Data
+@Builder
+public class BookingDecisionResultDto {
+    private Long bookingId;
+    private BookingStatus status;
+    private String error;
+}
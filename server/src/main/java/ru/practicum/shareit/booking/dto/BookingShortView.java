@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingShortView {
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+}
@@ -4,6 +4,8 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -43,11 +45,25 @@ public class BookingMapper {
         return dto;
     }
 
+    public static BookingResponseDto toBookingResponseDto(BookingView view) {
+        return BookingResponseDto.builder()
+                .id(view.getId())
+                .start(view.getStart())
+                .end(view.getEnd())
+                .status(view.getStatus())
+                .booker(UserDtoShort.builder().id(view.getBookerId()).build())
+                .item(ItemDtoShort.builder().id(view.getItemId()).name(view.getItemName()).build())
+                .build();
+    }
+
     public static BookingShortDto toShortDto(Booking booking) {
         BookingShortDto dto = new BookingShortDto();
         dto.setId(booking.getId());
         dto.setBookerId(booking.getBooker().getId());
         return dto;
     }
-}
 
+    public static BookingShortDto toShortDto(BookingShortView view) {
+        return new BookingShortDto(view.getId(), view.getBookerId());
+    }
+}
@@ -1,21 +1,67 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.schedule.BookingPeriod;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>,
+        BookingRepositoryCustom {
 
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId);
-
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
 
     Booking findFirstByBookerIdAndItemIdAndEndTimeBeforeOrderByEndTimeDesc(
             Long bookerId, Long itemId, LocalDateTime now);
 
-    List<Booking> findByItem_idAndStatus(long itemId, BookingStatus status);
+    // по одной строке на вещь и сторону от now: последнее начавшееся и ближайшее будущее подтверждённое
+    @Query(nativeQuery = true, value = "SELECT id, itemId, bookerId, start FROM (" +
+            "SELECT b.id AS id, b.item_id AS itemId, b.booker_id AS bookerId, b.start_time AS start, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id, b.start_time > :now " +
+            "ORDER BY CASE WHEN b.start_time > :now THEN b.start_time END ASC, b.start_time DESC) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED') t WHERE rn = 1")
+    List<BookingShortView> findLastAndNextApproved(Collection<Long> itemIds, LocalDateTime now);
+
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndTimeAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime end, LocalDateTime start);
+
+    List<Booking> findByItemIdAndStatusInAndEndTimeAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status " +
+            "WHERE b.id = :bookingId AND b.status = :expected " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.ownerId = :ownerId)")
+    int updateStatus(Long bookingId, Long ownerId, BookingStatus expected, BookingStatus status);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingView(" +
+            "b.id, b.start, b.endTime, b.status, b.booker.id, i.id, i.name, i.ownerId) " +
+            "FROM Booking b JOIN b.item i WHERE b.id = :bookingId")
+    Optional<BookingView> findViewById(Long bookingId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingView(" +
+            "b.id, b.start, b.endTime, b.status, b.booker.id, i.id, i.name, i.ownerId) " +
+            "FROM Booking b JOIN b.item i WHERE b.id IN :bookingIds")
+    List<BookingView> findViewsByIdIn(Collection<Long> bookingIds);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.endTime AS end FROM Booking b " +
+            "WHERE b.status IN :statuses AND b.endTime > :now")
+    List<BookingPeriod> findActivePeriods(Collection<BookingStatus> statuses, LocalDateTime now);
+
 
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.endTime AS end FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status IN :statuses AND b.start < :end AND b.endTime > :start")
+    List<BookingPeriod> findActivePeriodsOverlapping(Collection<Long> itemIds, Collection<BookingStatus> statuses,
+                                                     LocalDateTime start, LocalDateTime end);
 }
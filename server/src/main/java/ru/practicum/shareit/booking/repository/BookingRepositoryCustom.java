@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+import java.util.Map;
+
+public interface BookingRepositoryCustom {
+
+    // сортировка по (start_time, id) desc, без count-запроса в отличие от findAll(spec, pageable);
+    // только нужные ответу колонки, сущности в контекст не попадают
+    List<BookingView> findPage(Specification<Booking> spec, long offset, int limit);
+
+    // один JDBC batch; счётчики строк возвращаются в порядке обхода statuses
+    int[] updateStatusesIfWaiting(Long ownerId, Map<Long, BookingStatus> statuses);
+
+    // вставка одним JDBC batch, сгенерированные id проставляются в переданные объекты
+    void insertAll(List<Booking> bookings);
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final String UPDATE_STATUS_IF_WAITING = "UPDATE bookings SET status = ? " +
+            "WHERE id = ? AND status = 'WAITING' AND item_id IN (SELECT id FROM items WHERE owner_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingView> findPage(Specification<Booking> spec, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = cb.createQuery(BookingView.class);
+        Root<Booking> root = query.from(Booking.class);
+        // item.* - тот же неявный join, что и в ownedBy; booker.id читается из внешнего ключа без join
+        query.select(cb.construct(BookingView.class,
+                root.get("id"), root.get("start"), root.get("endTime"), root.get("status"),
+                root.get("booker").get("id"), root.get("item").get("id"), root.get("item").get("name"),
+                root.get("item").get("ownerId")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("start")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int[] updateStatusesIfWaiting(Long ownerId, Map<Long, BookingStatus> statuses) {
+        List<Object[]> args = statuses.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue().name(), entry.getKey(), ownerId})
+                .toList();
+        return jdbcTemplate.batchUpdate(UPDATE_STATUS_IF_WAITING, args);
+    }
+
+    // id берутся из последовательности блоками, поэтому Hibernate отправляет вставки одним JDBC-батчем
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        bookings.forEach(entityManager::persist);
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+public class BookingSpecifications {
+
+    public static Specification<Booking> bookedBy(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> ownedBy(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("item").get("ownerId"), ownerId);
+    }
+
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        return switch (state) {
+            case ALL -> (root, query, cb) -> cb.conjunction();
+            case CURRENT -> (root, query, cb) -> cb.and(
+                    cb.lessThan(root.get("start"), now),
+                    cb.greaterThan(root.get("endTime"), now));
+            case PAST -> (root, query, cb) -> cb.lessThan(root.get("endTime"), now);
+            case FUTURE -> (root, query, cb) -> cb.greaterThan(root.get("start"), now);
+            case WAITING -> hasStatus(BookingStatus.WAITING);
+            case REJECTED -> hasStatus(BookingStatus.REJECTED);
+        };
+    }
+
+    public static Specification<Booking> after(LocalDateTime start, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("start"), start),
+                cb.and(cb.equal(root.get("start"), start), cb.lessThan(root.get("id"), id)));
+    }
+
+    private static Specification<Booking> hasStatus(BookingStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+}
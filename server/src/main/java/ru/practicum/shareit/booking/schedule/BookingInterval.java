@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class BookingInterval {
+    Long bookingId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Расписания вещей загружаются по требованию и живут не дольше shareit.booking.schedule.ttl: изменения,
+// сделанные другим экземпляром, видны в календаре доступности после перечитывания.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingScheduleIndex {
+
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final ItemSlotIndex slotIndex;
+    private final BookingScheduleProperties properties;
+    private final Map<Long, Loaded> schedules = new ConcurrentHashMap<>();
+
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemSchedule schedule = getSchedule(itemId);
+        schedule.pruneEndedBefore(LocalDateTime.now());
+        return schedule.overlaps(start, end);
+    }
+
+    public List<TimeSlot> busyBetween(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return getSchedule(itemId).busyBetween(from, to);
+    }
+
+    public boolean isLoaded(Long itemId) {
+        return schedules.containsKey(itemId);
+    }
+
+    public void reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        BookingInterval interval = new BookingInterval(booking.getId(), booking.getStart(), booking.getEndTime());
+        getSchedule(itemId).add(interval);
+        slotIndex.occupy(itemId, interval.getStart(), interval.getEnd());
+        TransactionHooks.afterRollback(() -> release(itemId, booking.getId()));
+    }
+
+    public void releaseAfterCommit(Long itemId, Long bookingId) {
+        TransactionHooks.afterCommit(() -> release(itemId, bookingId));
+    }
+
+    public void evict(Long itemId) {
+        schedules.remove(itemId);
+    }
+
+    public void forgetItem(Long itemId) {
+        schedules.remove(itemId);
+        slotIndex.remove(itemId);
+    }
+
+    ItemSchedule getSchedule(Long itemId) {
+        Loaded current = schedules.get(itemId);
+        if (current != null && System.nanoTime() - current.expiresAt() < 0) {
+            return current.schedule();
+        }
+        Loaded loaded = new Loaded(load(itemId), System.nanoTime() + properties.getTtl().toNanos());
+        if (current == null) {
+            Loaded existing = schedules.putIfAbsent(itemId, loaded);
+            return existing != null ? existing.schedule() : loaded.schedule();
+        }
+        if (schedules.replace(itemId, current, loaded)) {
+            return loaded.schedule();
+        }
+        Loaded replaced = schedules.get(itemId);
+        return replaced != null ? replaced.schedule() : loaded.schedule();
+    }
+
+    private ItemSchedule load(Long itemId) {
+        ItemSchedule schedule = new ItemSchedule();
+        bookingRepository.findByItemIdAndStatusInAndEndTimeAfter(itemId, ACTIVE_STATUSES, LocalDateTime.now())
+                .forEach(booking -> schedule.add(
+                        new BookingInterval(booking.getId(), booking.getStart(), booking.getEndTime())));
+        log.debug("Loaded schedule for item {}: {} intervals", itemId, schedule.size());
+        return schedule;
+    }
+
+    // вызывается после завершения транзакции, поэтому в базу не ходит: незагруженное расписание перечитается
+    // при следующем обращении, а слоты вещи - при плановой пересборке ItemSlotIndex
+    private void release(Long itemId, Long bookingId) {
+        Loaded loaded = schedules.get(itemId);
+        if (loaded == null) {
+            return;
+        }
+        ItemSchedule schedule = loaded.schedule();
+        schedule.remove(bookingId);
+        // граничные часовые слоты могут быть заняты соседними бронированиями, поэтому битмап пересобирается
+        slotIndex.reset(itemId, schedule.busyBetween(LocalDateTime.now(), LocalDateTime.MAX));
+    }
+
+    private record Loaded(ItemSchedule schedule, long expiresAt) {
+    }
+}
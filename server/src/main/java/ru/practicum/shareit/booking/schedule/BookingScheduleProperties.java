@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.booking.schedule")
+public class BookingScheduleProperties {
+    // расписание вещи перечитывается из базы не реже раза в ttl: брони других экземпляров в нём не отражаются
+    private Duration ttl = Duration.ofMinutes(1);
+    // период полной пересборки часовых слотов ItemSlotIndex: сдвигает начало отсчёта и подтягивает чужие брони
+    private Duration slotRefresh = Duration.ofMinutes(10);
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.schedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Полуинтервалы [start, end) активных бронирований одной вещи, упорядоченные по (start, bookingId).
+// Ограничение исключения в базе не даёт интервалам пересекаться, но у старых строк и броней с одинаковым
+// началом ключ start не уникален, поэтому в ключ входит и id брони.
+public class ItemSchedule {
+
+    private final NavigableMap<Key, BookingInterval> byStart = new TreeMap<>();
+    private final Map<Long, Key> keyById = new HashMap<>();
+
+    public synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        for (BookingInterval interval : byStart.tailMap(firstKey(start), true).values()) {
+            if (!interval.getStart().isBefore(end)) {
+                return false;
+            }
+            if (interval.getEnd().isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized List<TimeSlot> busyBetween(LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> busy = new ArrayList<>();
+        for (BookingInterval interval : byStart.subMap(firstKey(from), true, Key.first(to), false).values()) {
+            if (!interval.getEnd().isAfter(from)) {
+                continue;
+            }
+            LocalDateTime start = max(interval.getStart(), from);
+            LocalDateTime end = min(interval.getEnd(), to);
+            if (!busy.isEmpty() && !busy.getLast().getEnd().isBefore(start)) {
+                TimeSlot last = busy.getLast();
+                busy.set(busy.size() - 1, new TimeSlot(last.getStart(), max(last.getEnd(), end)));
+            } else {
+                busy.add(new TimeSlot(start, end));
+            }
+        }
+        return busy;
+    }
+
+    public static List<TimeSlot> gaps(List<TimeSlot> busy, LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (TimeSlot slot : busy) {
+            if (slot.getStart().isAfter(cursor)) {
+                free.add(new TimeSlot(cursor, slot.getStart()));
+            }
+            cursor = max(cursor, slot.getEnd());
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new TimeSlot(cursor, to));
+        }
+        return free;
+    }
+
+    public synchronized void add(BookingInterval interval) {
+        remove(interval.getBookingId());
+        Key key = new Key(interval.getStart(), interval.getBookingId());
+        byStart.put(key, interval);
+        keyById.put(interval.getBookingId(), key);
+    }
+
+    public synchronized void remove(Long bookingId) {
+        Key key = keyById.remove(bookingId);
+        if (key != null) {
+            byStart.remove(key);
+        }
+    }
+
+    public synchronized void pruneEndedBefore(LocalDateTime now) {
+        while (!byStart.isEmpty() && !byStart.firstEntry().getValue().getEnd().isAfter(now)) {
+            keyById.remove(byStart.pollFirstEntry().getValue().getBookingId());
+        }
+    }
+
+    public synchronized int size() {
+        return byStart.size();
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // первый ключ среди интервалов, начавшихся не позже time: с него может начинаться пересечение с time
+    private Key firstKey(LocalDateTime time) {
+        Key floor = byStart.floorKey(Key.last(time));
+        return Key.first(floor != null ? floor.start() : time);
+    }
+
+    private record Key(LocalDateTime start, long bookingId) implements Comparable<Key> {
+
+        static Key first(LocalDateTime start) {
+            return new Key(start, Long.MIN_VALUE);
+        }
+
+        static Key last(LocalDateTime start) {
+            return new Key(start, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = start.compareTo(other.start);
+            return byTime != 0 ? byTime : Long.compare(bookingId, other.bookingId);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Часовые слоты, занятые активными бронированиями, по одному BitSet на вещь. Вещи без бронирований не хранятся.
+// Слот занят, если с ним пересекается хотя бы одно бронирование, поэтому проверка консервативна с точностью до часа.
+// Индекс локален для экземпляра, поэтому раз в shareit.booking.schedule.slot-refresh он пересобирается из базы:
+// подтягиваются брони других экземпляров, начало отсчёта сдвигается к текущему часу, вещи без активных броней
+// выпадают. Новые слоты строятся без блокировки и подменяются под блокировкой записи, остальные операции идут
+// под чтением. Изменения слотов одной вещи (occupy, reset) выполняются атомарно через compute.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSlotIndex {
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, BitSet> slots = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile LocalDateTime origin = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+        List<BookingPeriod> periods = bookingRepository.findActivePeriods(BookingScheduleIndex.ACTIVE_STATUSES, now);
+        Map<Long, BitSet> rebuilt = new HashMap<>();
+        periods.forEach(period -> {
+            int from = slot(hour, period.getStart());
+            int to = endSlot(hour, period.getEnd());
+            if (from < to) {
+                rebuilt.computeIfAbsent(period.getItemId(), id -> new BitSet()).set(from, to);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            slots.putAll(rebuilt);
+            origin = hour;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Item slot index built: {} items, {} bookings in {} ms",
+                rebuilt.size(), periods.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "#{@bookingScheduleProperties.slotRefresh.toMillis()}",
+            initialDelayString = "#{@bookingScheduleProperties.slotRefresh.toMillis()}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = slots.get(itemId);
+            if (bits == null) {
+                return true;
+            }
+            int from = firstSlot(start);
+            int to = lastSlot(end);
+            synchronized (bits) {
+                int busy = bits.nextSetBit(from);
+                return busy < 0 || busy >= to;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void occupy(Long itemId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            int from = firstSlot(start);
+            int to = lastSlot(end);
+            if (from >= to) {
+                return;
+            }
+            slots.compute(itemId, (id, bits) -> {
+                BitSet updated = bits != null ? bits : new BitSet();
+                synchronized (updated) {
+                    updated.set(from, to);
+                }
+                return updated;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // пересборка слотов вещи идёт под той же блокировкой ключа, что и occupy, поэтому параллельная бронь не теряется
+    public void reset(Long itemId, Collection<TimeSlot> busy) {
+        lock.readLock().lock();
+        try {
+            slots.compute(itemId, (id, current) -> {
+                BitSet bits = new BitSet();
+                busy.forEach(slot -> {
+                    int from = firstSlot(slot.getStart());
+                    int to = lastSlot(slot.getEnd());
+                    if (from < to) {
+                        bits.set(from, to);
+                    }
+                });
+                return bits.isEmpty() ? null : bits;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        slots.remove(itemId);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private int firstSlot(LocalDateTime time) {
+        return slot(origin, time);
+    }
+
+    private int lastSlot(LocalDateTime time) {
+        return endSlot(origin, time);
+    }
+
+    private static int slot(LocalDateTime origin, LocalDateTime time) {
+        return (int) Math.max(0, ChronoUnit.HOURS.between(origin, time));
+    }
+
+    private static int endSlot(LocalDateTime origin, LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        int slot = slot(origin, hour);
+        return hour.equals(time) ? slot : slot + 1;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.schedule;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class TimeSlot {
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -1,19 +1,28 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
 
     BookingResponseDto addBooking(Long userId, BookingRequestDto bookingDto);
 
+    List<BookingResponseDto> addBookings(Long userId, List<BookingRequestDto> bookingDtos);
+
     BookingResponseDto approveBooking(Long userId, Long bookingId, boolean approved);
 
+    List<BookingDecisionResultDto> approveBookings(Long ownerId, List<BookingDecisionDto> decisions);
+
     BookingResponseDto getBooking(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getUserBookings(Long userId, String state);
+    List<BookingResponseDto> getUserBookings(Long userId, String state, int from, int size,
+                                             LocalDateTime afterStart, Long afterId);
 
-    List<BookingResponseDto> getOwnerBookings(Long ownerId, String state);
+    List<BookingResponseDto> getOwnerBookings(Long ownerId, String state, int from, int size,
+                                              LocalDateTime afterStart, Long afterId);
 }
@@ -1,26 +1,50 @@
 package ru.practicum.shareit.booking.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
+import ru.practicum.shareit.booking.schedule.TimeSlot;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BatchValidationException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.cache.ItemVersions;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookedBy;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.inState;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownedBy;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +53,8 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingScheduleIndex scheduleIndex;
+    private final ItemVersions itemVersions;
 
     @Override
     @Transactional
@@ -36,58 +62,139 @@ public class BookingServiceImpl implements BookingService {
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
-        Item item = itemRepository.findById(bookingDto.getItemId())
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Item not found with id: " + bookingDto.getItemId()));
 
         if (!item.getAvailable()) {
             throw new ValidationException("item must be available!");
         }
 
-        if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
-            throw new ValidationException("start can not be in the past!");
+        String periodError = periodError(bookingDto, LocalDateTime.now());
+        if (periodError != null) {
+            throw new ValidationException(periodError);
         }
 
-        if (bookingDto.getEnd().isBefore(LocalDateTime.now())) {
-            throw new ValidationException("end can not be in the past!");
-        }
-
-        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
-            throw new ValidationException("end must be after start!");
+        if (isOccupied(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ConflictException("Item is already booked for this period");
         }
 
         Booking booking = BookingMapper.toBooking(bookingDto, user, item);
         booking.setStatus(BookingStatus.WAITING);
 
-        Booking saved = bookingRepository.save(booking);
+        Booking saved;
+        try {
+            saved = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Item is already booked for this period");
+        }
+        scheduleIndex.reserve(saved);
         return BookingMapper.toBookingResponseDto(saved);
     }
 
     @Override
     @Transactional
-    public BookingResponseDto approveBooking(Long userId, Long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
+    public List<BookingResponseDto> addBookings(Long userId, List<BookingRequestDto> bookingDtos) {
+        if (bookingDtos == null || bookingDtos.isEmpty()) {
+            throw new ValidationException("bookings must not be empty");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
 
-        Item item = booking.getItem();
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingRequestDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
 
-        if (!item.getOwnerId().equals(userId)) {
-            throw new ValidationException("Only the owner of the item can approve the booking.");
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, String> errors = new TreeMap<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            String error = lineError(bookingDtos.get(i), items, now);
+            if (error != null) {
+                errors.put(i, error);
+            }
+        }
+        if (errors.isEmpty()) {
+            findOverlaps(bookingDtos, errors);
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException("Bookings were not created", errors);
         }
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new ConflictException("Booking is already " + booking.getStatus());
+        List<Booking> bookings = bookingDtos.stream()
+                .map(dto -> BookingMapper.toBooking(dto, user, items.get(dto.getItemId())))
+                .toList();
+        bookings.forEach(booking -> booking.setStatus(BookingStatus.WAITING));
+        try {
+            bookingRepository.insertAll(bookings);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Item is already booked for this period");
         }
+        bookings.forEach(scheduleIndex::reserve);
+        return bookings.stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .toList();
+    }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+    @Override
+    @Transactional
+    public BookingResponseDto approveBooking(Long userId, Long bookingId, boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        // проверка статуса и владельца выполняется в самом UPDATE, поэтому повторное нажатие не проходит дважды
+        int updated = bookingRepository.updateStatus(bookingId, userId, BookingStatus.WAITING, status);
+
+        BookingView booking = bookingRepository.findViewById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
 
-        bookingRepository.save(booking);
+        if (updated == 0) {
+            if (!booking.getItemOwnerId().equals(userId)) {
+                throw new ValidationException("Only the owner of the item can approve the booking.");
+            }
+            throw new ConflictException("Booking is already " + booking.getStatus());
+        }
+
+        if (approved) {
+            itemVersions.changed(booking.getItemId());
+        } else {
+            scheduleIndex.releaseAfterCommit(booking.getItemId(), bookingId);
+        }
         return BookingMapper.toBookingResponseDto(booking);
     }
 
 
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> approveBookings(Long ownerId, List<BookingDecisionDto> decisions) {
+        if (decisions == null || decisions.isEmpty()) {
+            throw new ValidationException("decisions must not be empty");
+        }
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("bookingId and approved are required");
+            }
+            BookingStatus status = decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (statuses.put(decision.getBookingId(), status) != null) {
+                throw new ValidationException("Duplicate booking id: " + decision.getBookingId());
+            }
+        }
+
+        int[] updated = bookingRepository.updateStatusesIfWaiting(ownerId, statuses);
+        Map<Long, BookingView> views = bookingRepository.findViewsByIdIn(statuses.keySet()).stream()
+                .collect(Collectors.toMap(BookingView::getId, Function.identity()));
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(statuses.size());
+        int i = 0;
+        for (Long bookingId : statuses.keySet()) {
+            results.add(toDecisionResult(ownerId, bookingId, updated[i++] > 0, views.get(bookingId)));
+        }
+        return results;
+    }
+
     @Override
     public BookingResponseDto getBooking(Long userId, Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
 
         Item item = booking.getItem();
@@ -101,67 +208,132 @@ public class BookingServiceImpl implements BookingService {
 
 
     @Override
-    public List<BookingResponseDto> getUserBookings(Long userId, String stateStr) {
+    public List<BookingResponseDto> getUserBookings(Long userId, String stateStr, int from, int size,
+                                                    LocalDateTime afterStart, Long afterId) {
 
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         BookingState state = BookingState.from(stateStr);
 
-        List<Booking> bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId);
-
-        LocalDateTime now = LocalDateTime.now();
-
-        return bookings.stream()
-                .filter(booking -> {
-                    switch (state) {
-                        case ALL:
-                            return true;
-                        case CURRENT:
-                            return booking.getStart().isBefore(now) && booking.getEndTime().isAfter(now);
-                        case PAST:
-                            return booking.getEndTime().isBefore(now);
-                        case FUTURE:
-                            return booking.getStart().isAfter(now);
-                        case WAITING:
-                            return booking.getStatus() == BookingStatus.WAITING;
-                        case REJECTED:
-                            return booking.getStatus() == BookingStatus.REJECTED;
-                        default:
-                            return false;
-                    }
-                })
-                .map(BookingMapper::toBookingResponseDto)
-                .toList();
+        return findPage(bookedBy(userId).and(inState(state, LocalDateTime.now())), from, size, afterStart, afterId);
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long ownerId, String stateStr) {
+    public List<BookingResponseDto> getOwnerBookings(Long ownerId, String stateStr, int from, int size,
+                                                     LocalDateTime afterStart, Long afterId) {
         userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
         BookingState state = BookingState.from(stateStr);
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId);
-        LocalDateTime now = LocalDateTime.now();
 
-        return bookings.stream()
-                .filter(booking -> {
-                    switch (state) {
-                        case ALL:
-                            return true;
-                        case CURRENT:
-                            return booking.getStart().isBefore(now) && booking.getEndTime().isAfter(now);
-                        case PAST:
-                            return booking.getEndTime().isBefore(now);
-                        case FUTURE:
-                            return booking.getStart().isAfter(now);
-                        case WAITING:
-                            return booking.getStatus() == BookingStatus.WAITING;
-                        case REJECTED:
-                            return booking.getStatus() == BookingStatus.REJECTED;
-                        default:
-                            return false;
-                    }
-                })
+        return findPage(ownedBy(ownerId).and(inState(state, LocalDateTime.now())), from, size, afterStart, afterId);
+    }
+
+    // Свободный по локальному индексу период принимается без запроса к базе: параллельные брони одной вещи
+    // упорядочены блокировкой строки вещи, а бронь, созданную другим экземпляром, отсечёт ограничение
+    // исключения из V2 (нарушение превращается в ConflictException при сохранении). Пересечение в индексе
+    // может быть устаревшим (бронь отклонена другим экземпляром), поэтому оно подтверждается в базе,
+    // а при расхождении расписание вещи сбрасывается и перечитывается при следующем обращении.
+    private boolean isOccupied(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!scheduleIndex.overlaps(itemId, start, end)) {
+            return false;
+        }
+        boolean inDatabase = bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndTimeAfter(
+                itemId, BookingScheduleIndex.ACTIVE_STATUSES, end, start);
+        if (!inDatabase) {
+            scheduleIndex.evict(itemId);
+        }
+        return inDatabase;
+    }
+
+    private String periodError(BookingRequestDto bookingDto, LocalDateTime now) {
+        if (bookingDto.getStart().isBefore(now)) {
+            return "start can not be in the past!";
+        }
+        if (bookingDto.getEnd().isBefore(now)) {
+            return "end can not be in the past!";
+        }
+        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+            return "end must be after start!";
+        }
+        return null;
+    }
+
+    private String lineError(BookingRequestDto bookingDto, Map<Long, Item> items, LocalDateTime now) {
+        if (bookingDto.getItemId() == null || bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            return "itemId, start and end are required";
+        }
+        Item item = items.get(bookingDto.getItemId());
+        if (item == null) {
+            return "Item not found with id: " + bookingDto.getItemId();
+        }
+        if (!item.getAvailable()) {
+            return "item must be available!";
+        }
+        return periodError(bookingDto, now);
+    }
+
+    // один запрос на все вещи пакета под их блокировкой; пересечения внутри пакета проверяются тут же
+    private void findOverlaps(List<BookingRequestDto> bookingDtos, Map<Integer, String> errors) {
+        LocalDateTime start = bookingDtos.stream().map(BookingRequestDto::getStart).min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime end = bookingDtos.stream().map(BookingRequestDto::getEnd).max(Comparator.naturalOrder())
+                .orElseThrow();
+        Set<Long> itemIds = bookingDtos.stream().map(BookingRequestDto::getItemId).collect(Collectors.toSet());
+
+        Map<Long, List<TimeSlot>> taken = new HashMap<>();
+        bookingRepository.findActivePeriodsOverlapping(itemIds, BookingScheduleIndex.ACTIVE_STATUSES, start, end)
+                .forEach(period -> taken.computeIfAbsent(period.getItemId(), id -> new ArrayList<>())
+                        .add(new TimeSlot(period.getStart(), period.getEnd())));
+
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingRequestDto dto = bookingDtos.get(i);
+            List<TimeSlot> slots = taken.computeIfAbsent(dto.getItemId(), id -> new ArrayList<>());
+            boolean overlaps = slots.stream()
+                    .anyMatch(slot -> slot.getStart().isBefore(dto.getEnd()) && slot.getEnd().isAfter(dto.getStart()));
+            if (overlaps) {
+                errors.put(i, "Item " + dto.getItemId() + " is already booked for this period");
+            } else {
+                slots.add(new TimeSlot(dto.getStart(), dto.getEnd()));
+            }
+        }
+    }
+
+    private BookingDecisionResultDto toDecisionResult(Long ownerId, Long bookingId, boolean updated,
+                                                      BookingView booking) {
+        BookingDecisionResultDto.BookingDecisionResultDtoBuilder result = BookingDecisionResultDto.builder()
+                .bookingId(bookingId);
+        if (booking == null) {
+            return result.error("Booking not found with id: " + bookingId).build();
+        }
+        result.status(booking.getStatus());
+        if (updated) {
+            if (booking.getStatus() == BookingStatus.REJECTED) {
+                scheduleIndex.releaseAfterCommit(booking.getItemId(), bookingId);
+            } else {
+                itemVersions.changed(booking.getItemId());
+            }
+            return result.build();
+        }
+        if (!booking.getItemOwnerId().equals(ownerId)) {
+            return result.status(null).error("Only the owner of the item can approve the booking.").build();
+        }
+        return result.error("Booking is already " + booking.getStatus()).build();
+    }
+
+    private List<BookingResponseDto> findPage(Specification<Booking> spec, int from, int size,
+                                              LocalDateTime afterStart, Long afterId) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("from must be >= 0 and size must be > 0");
+        }
+        if ((afterStart == null) != (afterId == null)) {
+            throw new ValidationException("afterStart and afterId must be set together");
+        }
+        if (afterStart != null) {
+            spec = spec.and(after(afterStart, afterId));
+        }
+
+        return bookingRepository.findPage(spec, from, size).stream()
                 .map(BookingMapper::toBookingResponseDto)
                 .toList();
     }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class BatchValidationException extends RuntimeException {
+    private final Map<Integer, String> lineErrors;
+
+    public BatchValidationException(String message, Map<Integer, String> lineErrors) {
+        super(message);
+        this.lineErrors = lineErrors;
+    }
+}
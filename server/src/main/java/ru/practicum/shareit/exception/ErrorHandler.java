@@ -66,6 +66,20 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler(BatchValidationException.class)
+    public ResponseEntity<Map<String, Object>> handleBatchValidationException(BatchValidationException e) {
+        return new ResponseEntity<>(
+                Map.of(
+                        "timestamp", LocalDateTime.now(),
+                        "status", HttpStatus.BAD_REQUEST.value(),
+                        "error", "Bad Request",
+                        "message", e.getMessage(),
+                        "lines", e.getLineErrors()
+                ),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleOtherExceptions(Exception e) {
         return new ResponseEntity<>(
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.item.cache")
+public class ItemCacheProperties {
+    private boolean enabled = true;
+    private int maxSize = 10_000;
+    // страховка от изменений, о которых ItemVersions не знает: другой экземпляр или правка в обход сервиса
+    private Duration ttl = Duration.ofMinutes(1);
+}
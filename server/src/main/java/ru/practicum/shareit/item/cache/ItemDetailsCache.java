@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDtoBooking;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Read-through кэш карточек вещей (LRU по размеру). Актуальность определяет ItemVersions: запись живёт,
+// пока не изменились вещь, комментарии или подтверждённые брони и не началась следующая бронь.
+// Версии локальны для экземпляра, поэтому запись в любом случае живёт не дольше TTL.
+// Одновременные промахи по одной вещи ждут одну загрузку вместо того, чтобы строить карточку параллельно.
+@Component
+public class ItemDetailsCache {
+
+    private final ItemCacheProperties properties;
+    private final ItemVersions itemVersions;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Loading> loading = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ItemDetailsCache(ItemCacheProperties properties, ItemVersions itemVersions, MeterRegistry registry) {
+        this.properties = properties;
+        this.itemVersions = itemVersions;
+        hits = Counter.builder("shareit.item.cache.requests").tag("result", "hit").register(registry);
+        misses = Counter.builder("shareit.item.cache.requests").tag("result", "miss").register(registry);
+        evictions = Counter.builder("shareit.item.cache.evictions").register(registry);
+        Gauge.builder("shareit.item.cache.size", this, ItemDetailsCache::size)
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public ItemDtoBooking get(long itemId, Supplier<ItemDtoBooking> loader) {
+        ItemDtoBooking cached = cached(itemId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long version = itemVersions.current(itemId);
+        Loading mine = new Loading(version, new CompletableFuture<>());
+        Loading running = loading.putIfAbsent(itemId, mine);
+        // к загрузке, начатой до последнего изменения, не присоединяемся
+        if (running != null && running.version() == version) {
+            return await(running.result());
+        }
+        try {
+            ItemDtoBooking loaded = loader.get();
+            if (itemVersions.isFresh(itemId, version)) {
+                store(itemId, new Entry(version, loaded, System.nanoTime() + properties.getTtl().toNanos()));
+            }
+            mine.result().complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(itemId, mine);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized ItemDtoBooking cached(long itemId) {
+        Entry entry = entries.get(itemId);
+        if (entry == null) {
+            return null;
+        }
+        if (!itemVersions.isFresh(itemId, entry.version())) {
+            entries.remove(itemId);
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            entries.remove(itemId);
+            evictions.increment();
+            return null;
+        }
+        return entry.item();
+    }
+
+    private synchronized void store(long itemId, Entry entry) {
+        entries.put(itemId, entry);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > properties.getMaxSize()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static ItemDtoBooking await(CompletableFuture<ItemDtoBooking> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(long version, ItemDtoBooking item, long expiresAt) {
+    }
+
+    private record Loading(long version, CompletableFuture<ItemDtoBooking> result) {
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Версии карточек вещей для ETag. Версия растёт после коммита изменения вещи, комментария или подтверждения брони.
+// Карточка зависит и от времени: следующая бронь становится последней в момент своего начала, поэтому
+// ETag действует только до этого момента. Версии живут в памяти и не видят изменений, сделанных другим
+// экземпляром, поэтому отметка о построении живёт не дольше TTL кэша карточек (shareit.item.cache.ttl):
+// после него карточка перечитывается из базы. Идентификатор запуска в ETag не даёт совпасть тегам разных запусков.
+@Component
+@RequiredArgsConstructor
+public class ItemVersions {
+
+    private final ItemCacheProperties properties;
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Stamp> stamps = new ConcurrentHashMap<>();
+
+    public long current(long itemId) {
+        Stamp stamp = stamps.get(itemId);
+        return stamp == null ? 0 : stamp.version();
+    }
+
+    // version - значение current() до чтения карточки из базы, validUntil - начало следующей брони или null
+    public void built(long itemId, long version, LocalDateTime validUntil) {
+        stamps.compute(itemId, (id, stamp) -> {
+            long actual = stamp == null ? 0 : stamp.version();
+            long expiresAt = System.nanoTime() + properties.getTtl().toNanos();
+            return actual == version ? new Stamp(version, true, validUntil, expiresAt) : stamp;
+        });
+    }
+
+    // карточка, построенная при версии version, всё ещё актуальна
+    public boolean isFresh(long itemId, long version) {
+        Stamp stamp = stamps.get(itemId);
+        return stamp != null && stamp.version() == version && isFresh(stamp);
+    }
+
+    public String etag(long itemId) {
+        Stamp stamp = stamps.get(itemId);
+        if (stamp == null || !isFresh(stamp)) {
+            return null;
+        }
+        long until = stamp.validUntil() == null ? 0 : stamp.validUntil().toEpochSecond(ZoneOffset.UTC);
+        return "\"" + instance + "-" + itemId + "-" + stamp.version() + "-" + until + "\"";
+    }
+
+    public void changed(long itemId) {
+        TransactionHooks.afterCommit(() -> stamps.compute(itemId,
+                (id, stamp) -> new Stamp(stamp == null ? 1 : stamp.version() + 1, false, null, 0)));
+    }
+
+    public void forget(long itemId) {
+        TransactionHooks.afterCommit(() -> stamps.remove(itemId));
+    }
+
+    private static boolean isFresh(Stamp stamp) {
+        return stamp.built() && System.nanoTime() - stamp.expiresAt() < 0
+                && (stamp.validUntil() == null || LocalDateTime.now().isBefore(stamp.validUntil()));
+    }
+
+    private record Stamp(long version, boolean built, LocalDateTime validUntil, long expiresAt) {
+    }
+}
@@ -5,7 +5,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.dto.CommentDto;
-import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
@@ -24,7 +23,7 @@ public class CommentController {
 
     @GetMapping("/comments")
     @ResponseStatus(HttpStatus.CREATED)
-    public List<Comment> getComments(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public List<CommentDto> getComments(@RequestHeader("X-Sharer-User-Id") long userId) {
         return itemService.getComments(userId);
     }
 
@@ -1,12 +1,22 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 
+import java.io.InputStream;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,6 +24,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -23,13 +34,44 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDtoBooking find(@PathVariable long itemId) {
-        return itemService.getItemWithComments(itemId);
+    public ResponseEntity<ItemDtoBooking> find(@PathVariable long itemId, WebRequest request) {
+        String etag = itemService.getItemEtag(itemId);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        ItemDtoBooking item = itemService.getItemWithComments(itemId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        etag = itemService.getItemEtag(itemId);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response.body(item);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable long itemId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam("text") String text) {
-        return itemService.searchItems(text);
+    public List<ItemDto> searchItems(@RequestParam("text") String text,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                     @RequestParam(defaultValue = "0") int from,
+                                     @RequestParam(defaultValue = "10") int size) {
+        return itemService.searchItems(text, start, end, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestParam("prefix") String prefix,
+                                     @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggestNames(prefix, size);
     }
 
     @PostMapping
@@ -39,6 +81,13 @@ public class ItemController {
         return itemService.addNewItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ItemImportResultDto importItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           InputStream body) {
+        return itemImportService.importItems(userId, contentType, body);
+    }
+
     @DeleteMapping("/{itemId}")
     public void deleteItem(@RequestHeader("X-Sharer-User-Id") long userId,
                            @PathVariable long itemId) {
@@ -46,8 +95,10 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemDto> allItemsFormUser(@RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemService.allItemsFormUser(userId);
+    public List<ItemDtoBooking> allItemsFormUser(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestParam(defaultValue = "0") int from,
+                                                 @RequestParam(defaultValue = "10") int size) {
+        return itemService.allItemsFormUser(userId, from, size);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.controller;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// Список вещей владельца зависит от многих вещей сразу, версии для него нет: ETag считается по телу ответа.
+// Запросы к базе остаются, но неизменившийся список не передаётся повторно.
+@Configuration
+public class ItemEtagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> itemListEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/items");
+        return registration;
+    }
+}
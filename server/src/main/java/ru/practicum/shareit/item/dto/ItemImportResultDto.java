@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class ItemImportResultDto {
+    private long imported;
+    private long failed;
+    // номер строки файла -> ошибка; в отчёт попадают первые errorsLimit ошибок
+    private Map<Long, String> errors;
+    private boolean errorsTruncated;
+}
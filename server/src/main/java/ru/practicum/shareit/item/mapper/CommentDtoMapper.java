@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
 public class CommentDtoMapper {
@@ -15,4 +16,13 @@ public class CommentDtoMapper {
         return dto;
     }
 
+    public static CommentDto mapToDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
+
 }
@@ -1,15 +1,20 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.RequiredArgsConstructor;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.schedule.TimeSlot;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -47,21 +52,59 @@ public class ItemMapper {
         return dto;
     }
 
-    public static ItemDtoBooking mapToItemDtoBooking(Item item, List<Booking> bookings, List<Comment> comments) {
-        ItemDtoBooking itemDtoBooking = ItemDtoBooking.builder()
+    public static ItemDtoBooking toItemDtoBooking(Item item, BookingShortDto lastBooking,
+                                                  BookingShortDto nextBooking, List<CommentDto> comments) {
+        return ItemDtoBooking.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .comments(comments.stream().map(CommentDtoMapper::mapToDto).toList())
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .comments(comments)
                 .build();
-        if (!bookings.isEmpty()) {
-            itemDtoBooking.setLastBooking(BookingMapper.toShortDto(bookings.getLast()));
-            if (bookings.size() > 1) {
-                itemDtoBooking.setNextBooking(BookingMapper.toShortDto(bookings.get(bookings.size() - 2)));
-            }
-        }
-        return itemDtoBooking;
+    }
+
+    public static ItemDtoBooking toItemDtoBooking(ItemDto item, BookingShortDto lastBooking,
+                                                  BookingShortDto nextBooking, List<CommentDto> comments) {
+        return ItemDtoBooking.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .comments(comments)
+                .build();
+    }
+
+    public static List<ItemDtoBooking> toItemDtoBookingList(List<ItemDto> items,
+                                                            Map<Long, BookingShortDto> lastBookings,
+                                                            Map<Long, BookingShortDto> nextBookings,
+                                                            Map<Long, List<CommentDto>> comments) {
+        return items.stream()
+                .map(item -> toItemDtoBooking(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), List.of())))
+                .toList();
+    }
+
+    public static ItemAvailabilityDto toItemAvailabilityDto(long itemId, LocalDateTime from, LocalDateTime to,
+                                                            List<TimeSlot> busy, List<TimeSlot> free) {
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(toTimeSlotDtoList(busy))
+                .free(toTimeSlotDtoList(free))
+                .build();
+    }
+
+    private static List<TimeSlotDto> toTimeSlotDtoList(List<TimeSlot> slots) {
+        return slots.stream()
+                .map(slot -> new TimeSlotDto(slot.getStart(), slot.getEnd()))
+                .toList();
     }
 
     public static List<ItemDto> toItemDtoList(List<Item> items) {
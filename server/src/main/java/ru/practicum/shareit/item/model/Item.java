@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import ru.practicum.shareit.request.ItemRequest;
 
 @Entity
@@ -15,7 +16,8 @@ import ru.practicum.shareit.request.ItemRequest;
 @NoArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -27,7 +29,8 @@ public class Item {
     @Column(name = "owner_id")
     private Long ownerId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 }
\ No newline at end of file
@@ -1,12 +1,22 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItem_id(long itemId);
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByAuthorIdOrderByCreated(long userId);
 
-    List<Comment> findByAuthorId(long userId);
+    @Query("SELECT c.id AS id, c.item.id AS itemId, c.description AS text, a.name AS authorName, " +
+            "c.created AS created FROM Comment c JOIN c.author a WHERE c.item.id IN :itemIds ORDER BY c.created")
+    List<CommentView> findViewsByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT DISTINCT c.item.id FROM Comment c WHERE c.author.id = :authorId")
+    List<Long> findItemIdsByAuthorId(long authorId);
 }
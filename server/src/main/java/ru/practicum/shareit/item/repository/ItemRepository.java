@@ -1,28 +1,100 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    // у вещи нет активных броней, пересекающих [:start, :end)
+    String NOT_BOOKED = "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = i.id " +
+            "AND b.status IN ('WAITING', 'APPROVED') AND b.start_time < :end AND b.end_time > :start) ";
+
     List<Item> findByOwnerId(Long userId);
 
+    List<Item> findAllByAvailableTrue();
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) " +
+            "FROM Item i WHERE i.ownerId = :ownerId ORDER BY i.id LIMIT :limit OFFSET :offset")
+    List<ItemDto> findDtosByOwnerId(Long ownerId, int limit, long offset);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :itemId")
+    Optional<Item> findByIdForUpdate(Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :itemIds ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(Collection<Long> itemIds);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Item i WHERE i.id = :itemId AND i.ownerId = :userId")
-    void deleteByUserIdAndItemId(long userId, long itemId);
+    int deleteByUserIdAndItemId(long userId, long itemId);
+
+    // совпадения в названии выше совпадений только в описании
+    @Query(nativeQuery = true, value = "SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id " +
+            "FROM items i WHERE (LOWER(i.name) LIKE CONCAT('%', :text, '%') " +
+            "OR LOWER(i.description) LIKE CONCAT('%', :text, '%')) AND i.available = true " +
+            "ORDER BY CASE WHEN LOWER(i.name) LIKE CONCAT('%', :text, '%') THEN 0 ELSE 1 END, i.id " +
+            "LIMIT :pageSize OFFSET :pageOffset")
+    List<Item> search(String text, int pageSize, long pageOffset);
+
+    @Query(nativeQuery = true, value = "SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id " +
+            "FROM items i WHERE (LOWER(i.name) LIKE CONCAT('%', :text, '%') " +
+            "OR LOWER(i.description) LIKE CONCAT('%', :text, '%')) AND i.available = true " + NOT_BOOKED +
+            "ORDER BY CASE WHEN LOWER(i.name) LIKE CONCAT('%', :text, '%') THEN 0 ELSE 1 END, i.id " +
+            "LIMIT :pageSize OFFSET :pageOffset")
+    List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, int pageSize, long pageOffset);
+
+    // только PostgreSQL: search_vector и GIN-индекс создаются миграцией db/migration/postgresql/V2
+    @Query(nativeQuery = true, value = "SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id " +
+            "FROM items i, plainto_tsquery('russian', :text) qr, plainto_tsquery('english', :text) qe " +
+            "WHERE i.available AND i.search_vector @@ (qr || qe) " +
+            "ORDER BY ts_rank(i.search_vector, qr || qe) DESC, i.id " +
+            "LIMIT :pageSize OFFSET :pageOffset")
+    List<Item> searchFullText(String text, int pageSize, long pageOffset);
+
+    @Query(nativeQuery = true, value = "SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id " +
+            "FROM items i, plainto_tsquery('russian', :text) qr, plainto_tsquery('english', :text) qe " +
+            "WHERE i.available AND i.search_vector @@ (qr || qe) " + NOT_BOOKED +
+            "ORDER BY ts_rank(i.search_vector, qr || qe) DESC, i.id " +
+            "LIMIT :pageSize OFFSET :pageOffset")
+    List<Item> searchFullTextFree(String text, LocalDateTime start, LocalDateTime end,
+                                  int pageSize, long pageOffset);
+
+    // только PostgreSQL: подстрока или похожее слово (pg_trgm), оба условия обслуживает GIN-индекс по триграммам
+    @Query(nativeQuery = true, value = "SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id " +
+            "FROM items i WHERE i.available AND (" +
+            "lower(i.name) LIKE '%' || :text || '%' OR lower(i.description) LIKE '%' || :text || '%' " +
+            "OR :text <% lower(i.name) OR :text <% lower(i.description)) " +
+            "ORDER BY word_similarity(:text, lower(i.name)) DESC, " +
+            "word_similarity(:text, lower(i.description)) DESC, i.id " +
+            "LIMIT :pageSize OFFSET :pageOffset")
+    List<Item> searchTrigram(String text, int pageSize, long pageOffset);
 
-    @Query("SELECT i FROM Item i " +
-            "WHERE (LOWER(i.name) LIKE %:text% OR LOWER(i.description) LIKE %:text%) " +
-            "AND i.available = true")
-    List<Item> search(String text);
+    @Query(nativeQuery = true, value = "SELECT i.id, i.name, i.description, i.available, i.owner_id, i.request_id " +
+            "FROM items i WHERE i.available AND (" +
+            "lower(i.name) LIKE '%' || :text || '%' OR lower(i.description) LIKE '%' || :text || '%' " +
+            "OR :text <% lower(i.name) OR :text <% lower(i.description)) " + NOT_BOOKED +
+            "ORDER BY word_similarity(:text, lower(i.name)) DESC, " +
+            "word_similarity(:text, lower(i.description)) DESC, i.id " +
+            "LIMIT :pageSize OFFSET :pageOffset")
+    List<Item> searchTrigramFree(String text, LocalDateTime start, LocalDateTime end,
+                                 int pageSize, long pageOffset);
 
-    List<Item> findAllByRequestIdIn(List<Long> requestorsId);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) " +
+            "FROM Item i WHERE i.request.id IN :requestIds")
+    List<ItemDto> findDtosByRequestIdIn(Collection<Long> requestIds);
 
     List<Item> findAllByRequestId(Long requestId);
 
@@ -0,0 +1,366 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Токен -> отсортированный long[] id доступных вещей. Совпадение по префиксу токена, все слова запроса через AND.
+// Сами вещи хранятся облегчёнными копиями без заявки, чтобы поиск обслуживался без обращения к базе.
+@Slf4j
+@Component
+public class InMemoryItemIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long[] EMPTY = new long[0];
+    // оценка заголовков объектов JVM для подсчёта занимаемой памяти
+    private static final int ARRAY_OVERHEAD = 16;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int ENTRY_OVERHEAD = 48;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, long[]> postings = new TreeMap<>();
+    private final Map<Long, Item> items = new HashMap<>();
+    private volatile long rebuildMillis;
+
+    public InMemoryItemIndex(ItemRepository itemRepository, ItemSearchProperties properties, MeterRegistry registry) {
+        this.itemRepository = itemRepository;
+        this.properties = properties;
+        Gauge.builder("shareit.search.index.items", this, InMemoryItemIndex::size)
+                .description("Available items in the in-memory search index")
+                .register(registry);
+        Gauge.builder("shareit.search.index.tokens", this, index -> index.read(index.postings::size))
+                .register(registry);
+        Gauge.builder("shareit.search.index.memory", this, InMemoryItemIndex::estimatedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("shareit.search.index.memory.per.item", this,
+                        index -> index.size() == 0 ? 0 : index.estimatedBytes() / index.size())
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("shareit.search.index.rebuild.time", this, index -> index.rebuildMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == ItemSearchMode.MEMORY;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<Item> available = itemRepository.findAllByAvailableTrue();
+        Map<String, List<Long>> collected = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            items.clear();
+            for (Item item : available) {
+                items.put(item.getId(), copyOf(item));
+                tokensOf(item).forEach(token -> collected.computeIfAbsent(token, t -> new ArrayList<>()).add(item.getId()));
+            }
+            collected.forEach((token, ids) -> postings.put(token,
+                    ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("In-memory item index built: {} items, {} tokens in {} ms", available.size(), postings.size(),
+                rebuildMillis);
+    }
+
+    // top-K по (совпадение в названии, id): полный список найденных вещей не собирается
+    public List<Item> search(String text, long offset, int limit) {
+        return search(text, offset, limit, null);
+    }
+
+    // filter отбрасывает совпадения до ранжирования, поэтому пагинация идёт по уже отфильтрованной выдаче
+    public List<Item> search(String text, long offset, int limit, LongPredicate filter) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return read(() -> {
+            long[] matches = null;
+            for (String token : tokens) {
+                long[] tokenMatches = prefixMatches(token);
+                matches = matches == null ? tokenMatches : intersect(matches, tokenMatches);
+                if (matches.length == 0) {
+                    return List.of();
+                }
+            }
+            int k = (int) Math.min(offset + limit, matches.length);
+            if (offset >= k) {
+                return List.of();
+            }
+            PriorityQueue<Ranked> top = new PriorityQueue<>(k, Comparator.reverseOrder());
+            for (long id : matches) {
+                if (filter != null && !filter.test(id)) {
+                    continue;
+                }
+                Item item = items.get(id);
+                Ranked ranked = new Ranked(item, matchesAll(tokenize(item.getName()), tokens) ? 0 : 1);
+                if (top.size() < k) {
+                    top.add(ranked);
+                } else if (ranked.compareTo(top.peek()) < 0) {
+                    top.poll();
+                    top.add(ranked);
+                }
+            }
+            return top.stream()
+                    .sorted()
+                    .skip(offset)
+                    .map(Ranked::item)
+                    .toList();
+        });
+    }
+
+    public void put(Item item) {
+        if (!isEnabled()) {
+            return;
+        }
+        Item copy = copyOf(item);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(copy.getId());
+                if (Boolean.TRUE.equals(copy.getAvailable())) {
+                    items.put(copy.getId(), copy);
+                    tokensOf(copy).forEach(token -> postings.merge(token, new long[]{copy.getId()},
+                            (ids, single) -> insert(ids, single[0])));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // порция вещей: каждый список id токена сливается с новыми id один раз, а не по вставке на вещь
+    public void putAll(Collection<Item> items) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Item> copies = items.stream().map(InMemoryItemIndex::copyOf).toList();
+        TransactionHooks.afterCommit(() -> {
+            Map<String, List<Long>> added = new HashMap<>();
+            lock.writeLock().lock();
+            try {
+                for (Item copy : copies) {
+                    removeLocked(copy.getId());
+                    if (Boolean.TRUE.equals(copy.getAvailable())) {
+                        this.items.put(copy.getId(), copy);
+                        tokensOf(copy).forEach(token -> added.computeIfAbsent(token, t -> new ArrayList<>())
+                                .add(copy.getId()));
+                    }
+                }
+                added.forEach((token, ids) -> postings.merge(token,
+                        ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray(),
+                        InMemoryItemIndex::union));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long itemId) {
+        if (!isEnabled()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        return read(items::size);
+    }
+
+    public long estimatedBytes() {
+        return read(() -> {
+            long bytes = 0;
+            for (Map.Entry<String, long[]> entry : postings.entrySet()) {
+                bytes += ENTRY_OVERHEAD + STRING_OVERHEAD + 2L * entry.getKey().length()
+                        + ARRAY_OVERHEAD + 8L * entry.getValue().length;
+            }
+            for (Item item : items.values()) {
+                bytes += ENTRY_OVERHEAD + 2L * STRING_OVERHEAD
+                        + 2L * (item.getName().length() + item.getDescription().length());
+            }
+            return bytes;
+        });
+    }
+
+    private static boolean matchesAll(List<String> itemTokens, List<String> queryTokens) {
+        return queryTokens.stream()
+                .allMatch(query -> itemTokens.stream().anyMatch(token -> token.startsWith(query)));
+    }
+
+    static List<String> tokenize(String text) {
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase()))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private void removeLocked(Long itemId) {
+        Item old = items.remove(itemId);
+        if (old == null) {
+            return;
+        }
+        for (String token : tokensOf(old)) {
+            long[] ids = postings.get(token);
+            if (ids == null) {
+                continue;
+            }
+            long[] rest = delete(ids, itemId);
+            if (rest.length == 0) {
+                postings.remove(token);
+            } else {
+                postings.put(token, rest);
+            }
+        }
+    }
+
+    private long[] prefixMatches(String prefix) {
+        NavigableMap<String, long[]> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (range.isEmpty()) {
+            return EMPTY;
+        }
+        if (range.size() == 1) {
+            return range.firstEntry().getValue();
+        }
+        return range.values().stream()
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        pos = -pos - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        result[pos] = id;
+        System.arraycopy(ids, pos, result, pos + 1, ids.length - pos);
+        return result;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+        return result;
+    }
+
+    private static Set<String> tokensOf(Item item) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(item.getName()));
+        tokens.addAll(tokenize(item.getDescription()));
+        return tokens;
+    }
+
+    private static Item copyOf(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName() == null ? "" : item.getName())
+                .description(item.getDescription() == null ? "" : item.getDescription())
+                .available(item.getAvailable())
+                .ownerId(item.getOwnerId())
+                .build();
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Ranked(Item item, int rank) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked other) {
+            int byRank = Integer.compare(rank, other.rank);
+            return byRank != 0 ? byRank : Long.compare(item.getId(), other.item.getId());
+        }
+    }
+}
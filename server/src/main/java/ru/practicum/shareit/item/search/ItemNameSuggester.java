@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Подсказки по началу названия доступных вещей: отсортированный массив и бинарный поиск.
+// Массив неизменяемый и подменяется целиком при записи, поэтому чтение идёт без блокировок.
+@Slf4j
+@Component
+public class ItemNameSuggester {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::itemId);
+
+    private final ItemRepository itemRepository;
+    private volatile Entry[] entries = new Entry[0];
+
+    public ItemNameSuggester(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Entry[] built = itemRepository.findAllByAvailableTrue().stream()
+                .filter(item -> item.getName() != null && !item.getName().isBlank())
+                .map(ItemNameSuggester::entryOf)
+                .sorted(ORDER)
+                .toArray(Entry[]::new);
+        synchronized (this) {
+            entries = built;
+        }
+        log.info("Item name suggestions built: {} names", built.length);
+    }
+
+    // до limit различных (без учёта регистра) названий в алфавитном порядке
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Entry[] snapshot = entries;
+        Set<String> seen = new LinkedHashSet<>();
+        List<String> result = new ArrayList<>(limit);
+        for (int i = lowerBound(snapshot, key); i < snapshot.length && result.size() < limit; i++) {
+            Entry entry = snapshot[i];
+            if (!entry.key().startsWith(key)) {
+                break;
+            }
+            if (seen.add(entry.key())) {
+                result.add(entry.name());
+            }
+        }
+        return result;
+    }
+
+    public void put(Item item) {
+        putAll(List.of(item));
+    }
+
+    // порция вещей вливается в массив за один проход, а не копией массива на каждую вещь
+    public void putAll(Collection<Item> items) {
+        Set<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+        Entry[] added = items.stream()
+                .filter(item -> Boolean.TRUE.equals(item.getAvailable()))
+                .filter(item -> item.getName() != null && !item.getName().isBlank())
+                .map(ItemNameSuggester::entryOf)
+                .sorted(ORDER)
+                .toArray(Entry[]::new);
+        TransactionHooks.afterCommit(() -> merge(itemIds, added));
+    }
+
+    public void remove(long itemId) {
+        TransactionHooks.afterCommit(() -> merge(Set.of(itemId), new Entry[0]));
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    // replaced - вещи, чьи старые записи удаляются; added отсортирован по ORDER
+    private synchronized void merge(Set<Long> replaced, Entry[] added) {
+        Entry[] current = entries;
+        Entry[] merged = new Entry[current.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < current.length || j < added.length) {
+            if (i < current.length && replaced.contains(current[i].itemId())) {
+                i++;
+            } else if (j == added.length || i < current.length && ORDER.compare(current[i], added[j]) <= 0) {
+                merged[k++] = current[i++];
+            } else {
+                merged[k++] = added[j++];
+            }
+        }
+        entries = k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    private static int lowerBound(Entry[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].key().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Entry entryOf(Item item) {
+        String name = item.getName().trim();
+        return new Entry(normalize(name), name, item.getId());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String key, String name, long itemId) {
+    }
+}
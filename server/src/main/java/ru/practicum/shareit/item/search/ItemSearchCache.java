@@ -0,0 +1,186 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Кэш "нормализованный запрос + страница -> найденные вещи" с ограничением по размеру и TTL.
+// Хранятся готовые DTO, поэтому попадание не обращается к базе ни в одном режиме поиска.
+// Чтение идёт без блокировок; вытесняются давно не читавшиеся записи (LRU по счётчику обращений).
+// Поиски с периодом не кэшируются: занятость меняется с каждой бронью.
+@Component
+public class ItemSearchCache {
+
+    private final ItemSearchProperties properties;
+    private final ItemSearcher itemSearcher;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong ticks = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+    // растёт при каждом изменении вещей: результат, посчитанный до изменения, в кэш не попадает
+    private final AtomicLong version = new AtomicLong();
+
+    public ItemSearchCache(ItemSearchProperties properties, ItemSearcher itemSearcher, MeterRegistry registry) {
+        this.properties = properties;
+        this.itemSearcher = itemSearcher;
+        hits = Counter.builder("shareit.search.cache.requests").tag("result", "hit").register(registry);
+        misses = Counter.builder("shareit.search.cache.requests").tag("result", "miss").register(registry);
+        sizeEvictions = Counter.builder("shareit.search.cache.evictions").tag("cause", "size").register(registry);
+        expiredEvictions = Counter.builder("shareit.search.cache.evictions").tag("cause", "expired")
+                .register(registry);
+        invalidations = Counter.builder("shareit.search.cache.evictions").tag("cause", "invalidated")
+                .register(registry);
+        Gauge.builder("shareit.search.cache.size", this, ItemSearchCache::size)
+                .register(registry);
+        Gauge.builder("shareit.search.cache.hit.ratio", this, ItemSearchCache::hitRatio)
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.getCache().isEnabled();
+    }
+
+    public List<ItemDto> get(String text, int from, int size) {
+        String key = key(text, from, size);
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt() >= 0) {
+            if (entries.remove(key, entry)) {
+                expiredEvictions.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess().set(ticks.incrementAndGet());
+        hits.increment();
+        return entry.items();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    // loadedAt - значение version() до запроса в базу
+    public void put(String text, int from, int size, List<ItemDto> items, long loadedAt) {
+        if (loadedAt != version.get()) {
+            return;
+        }
+        String key = key(text, from, size);
+        long expiresAt = System.nanoTime() + properties.getCache().getTtl().toNanos();
+        Entry entry = new Entry(InMemoryItemIndex.tokenize(normalize(text)), List.copyOf(items), expiresAt,
+                new AtomicLong(ticks.incrementAndGet()));
+        entries.put(key, entry);
+        // invalidate сначала увеличивает версию, потом чистит записи: если версия сменилась после проверки выше,
+        // очистка могла пройти раньше вставки, и запись убирается здесь
+        if (loadedAt != version.get()) {
+            entries.remove(key, entry);
+            return;
+        }
+        if (entries.size() > properties.getCache().getMaxSize()) {
+            evictEldest();
+        }
+    }
+
+    // before - состояние до изменения (null для новой вещи), after - после
+    public void itemChanged(Item before, Item after) {
+        if (!isEnabled()) {
+            return;
+        }
+        Item previous = before == null ? null : copyOf(before);
+        Item current = copyOf(after);
+        TransactionHooks.afterCommit(() -> invalidate(previous, current));
+    }
+
+    public void invalidateAll() {
+        if (!isEnabled()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> invalidate(null, null));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void invalidate(Item before, Item after) {
+        version.incrementAndGet();
+        // стемминг полнотекстового поиска и похожесть триграмм не проверить без базы, поэтому сбрасываем всё
+        boolean precise = after != null && (itemSearcher.getEffectiveMode() == ItemSearchMode.LIKE
+                || itemSearcher.getEffectiveMode() == ItemSearchMode.MEMORY);
+        entries.forEach((key, entry) -> {
+            if ((!precise || mayMatch(entry.tokens(), before) || mayMatch(entry.tokens(), after))
+                    && entries.remove(key, entry)) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    // записи сортируются только при переполнении; вытесняется сразу десятая часть, чтобы не делать этого на
+    // каждом промахе
+    private synchronized void evictEldest() {
+        int excess = entries.size() - properties.getCache().getMaxSize();
+        if (excess <= 0) {
+            return;
+        }
+        int count = excess + properties.getCache().getMaxSize() / 10;
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess().get()))
+                .limit(count)
+                .toList()
+                .forEach(e -> {
+                    if (entries.remove(e.getKey(), e.getValue())) {
+                        sizeEvictions.increment();
+                    }
+                });
+    }
+
+    // каждое слово запроса - подстрока названия или описания: для LIKE и префиксного индекса это
+    // необходимое условие совпадения, так что лишний сброс возможен, а пропущенный - нет
+    private static boolean mayMatch(List<String> queryTokens, Item item) {
+        if (item == null || !Boolean.TRUE.equals(item.getAvailable())) {
+            return false;
+        }
+        String text = (item.getName() + " " + item.getDescription()).toLowerCase();
+        return queryTokens.stream().allMatch(text::contains);
+    }
+
+    private static String key(String text, int from, int size) {
+        return normalize(text) + '\u0000' + from + '\u0000' + size;
+    }
+
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    private static Item copyOf(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName() == null ? "" : item.getName())
+                .description(item.getDescription() == null ? "" : item.getDescription())
+                .available(item.getAvailable())
+                .build();
+    }
+
+    private record Entry(List<String> tokens, List<ItemDto> items, long expiresAt, AtomicLong lastAccess) {
+    }
+}
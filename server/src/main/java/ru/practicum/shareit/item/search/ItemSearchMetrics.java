@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Таймеры фаз поиска (shareit.search.phase{phase}) и выборка запросов для отладочного лога
+@Component
+public class ItemSearchMetrics {
+
+    private final ItemSearchProperties properties;
+    private final Timer normalize;
+    private final Timer query;
+    private final Timer map;
+
+    public ItemSearchMetrics(ItemSearchProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        normalize = phase("normalize", registry);
+        query = phase("query", registry);
+        map = phase("map", registry);
+    }
+
+    public <T> T normalize(Supplier<T> action) {
+        return normalize.record(action);
+    }
+
+    public <T> T query(Supplier<T> action) {
+        return query.record(action);
+    }
+
+    public <T> T map(Supplier<T> action) {
+        return map.record(action);
+    }
+
+    public boolean sampled() {
+        double rate = properties.getLogSampleRate();
+        return rate >= 1 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static Timer phase(String name, MeterRegistry registry) {
+        return Timer.builder("shareit.search.phase")
+                .tag("phase", name)
+                .register(registry);
+    }
+}
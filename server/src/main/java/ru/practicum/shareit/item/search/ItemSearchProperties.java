@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.search")
+public class ItemSearchProperties {
+    private ItemSearchMode mode = ItemSearchMode.FULL_TEXT;
+    private Cache cache = new Cache();
+    // доля поисковых запросов, попадающих в debug-лог
+    private double logSampleRate = 0.01;
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private int maxSize = 1000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.schedule.ItemSlotIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearcher {
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties properties;
+    private final InMemoryItemIndex itemIndex;
+    private final ItemSlotIndex slotIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile ItemSearchMode effectiveMode;
+
+    public List<Item> search(String text, int from, int size) {
+        return page(text, from, size);
+    }
+
+    // вещи, свободные в [start, end): в базе условие проверяется в том же запросе (NOT EXISTS по броням),
+    // в памяти - по часовым слотам до ранжирования, так что пагинация идёт по отфильтрованной выдаче
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        return switch (getEffectiveMode()) {
+            case FULL_TEXT -> itemRepository.searchFullTextFree(text, start, end, size, from);
+            case TRIGRAM -> itemRepository.searchTrigramFree(text.toLowerCase(), start, end, size, from);
+            case MEMORY -> itemIndex.search(text, from, size, itemId -> slotIndex.isFree(itemId, start, end));
+            case LIKE -> itemRepository.searchFree(text.toLowerCase(), start, end, size, from);
+        };
+    }
+
+    private List<Item> page(String text, long offset, int limit) {
+        return switch (getEffectiveMode()) {
+            case FULL_TEXT -> itemRepository.searchFullText(text, limit, offset);
+            case TRIGRAM -> itemRepository.searchTrigram(text.toLowerCase(), limit, offset);
+            case MEMORY -> itemIndex.search(text, offset, limit);
+            case LIKE -> itemRepository.search(text.toLowerCase(), limit, offset);
+        };
+    }
+
+    // tsvector, pg_trgm и их GIN-индексы есть только в PostgreSQL (db/migration/postgresql), на H2 остаётся LIKE
+    ItemSearchMode getEffectiveMode() {
+        if (effectiveMode == null) {
+            ItemSearchMode mode = properties.getMode();
+            boolean needsPostgres = mode == ItemSearchMode.FULL_TEXT || mode == ItemSearchMode.TRIGRAM;
+            if (needsPostgres && !isPostgres()) {
+                log.info("Search mode {} is not supported by the database, falling back to {}",
+                        mode, ItemSearchMode.LIKE);
+                mode = ItemSearchMode.LIKE;
+            }
+            effectiveMode = mode;
+        }
+        return effectiveMode;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+
+import java.io.InputStream;
+
+public interface ItemImportService {
+    ItemImportResultDto importItems(long userId, String contentType, InputStream body);
+}
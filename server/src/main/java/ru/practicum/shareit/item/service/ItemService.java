@@ -1,10 +1,11 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
-import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -12,15 +13,22 @@ public interface ItemService {
 
     ItemDtoBooking getItemWithComments(Long itemId);
 
+    // null, если актуальная карточка ещё не строилась или могла измениться
+    String getItemEtag(long itemId);
+
     void deleteItem(Long userId, Long itemId);
 
     ItemDto updateItem(long userId, long itemId, ItemDto itemDto);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    List<String> suggestNames(String prefix, int size);
 
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
 
-    List<Comment> getComments(long userId);
+    List<CommentDto> getComments(long userId);
+
+    List<ItemDtoBooking> allItemsFormUser(long userId, int from, int size);
 
-    List<ItemDto> allItemsFormUser(long userId);
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,295 @@
+package ru.practicum.shareit.item.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Тело читается построчно и сохраняется порциями по CHUNK_SIZE в отдельных транзакциях,
+// поэтому память не зависит от размера файла. Ошибка в строке не останавливает импорт.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportServiceImpl implements ItemImportService {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "available", "requestId");
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final InMemoryItemIndex itemIndex;
+    private final ItemNameSuggester nameSuggester;
+    private final ItemSearchCache searchCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public ItemImportResultDto importItems(long userId, String contentType, InputStream body) {
+        MediaType type = MediaType.parseMediaType(contentType);
+        boolean csv = CSV.includes(type);
+        if (!csv && !NDJSON.includes(type)) {
+            throw new ValidationException("Unsupported import format: " + contentType);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+        Report report = new Report();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Map<String, Integer> columns = null;
+            if (csv) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    return report.toDto();
+                }
+                columns = csvHeader(header);
+            }
+            List<Line> chunk = new ArrayList<>(CHUNK_SIZE);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                Line line = parse(lineNumber, text, columns, report);
+                if (line != null) {
+                    chunk.add(line);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    save(userId, chunk, report);
+                    chunk.clear();
+                }
+            }
+            save(userId, chunk, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Import for user {}: {} items imported, {} lines failed", userId, report.imported, report.failed);
+        return report.toDto();
+    }
+
+    private Line parse(long lineNumber, String text, Map<String, Integer> columns, Report report) {
+        ItemDto itemDto;
+        try {
+            itemDto = columns == null ? objectMapper.readValue(text, ItemDto.class) : csvItem(text, columns);
+        } catch (JsonProcessingException e) {
+            report.error(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            report.error(lineNumber, e.getMessage());
+            return null;
+        }
+        String error = ItemServiceImpl.newItemError(itemDto);
+        if (error != null) {
+            report.error(lineNumber, error);
+            return null;
+        }
+        return new Line(lineNumber, itemDto);
+    }
+
+    private void save(long userId, List<Line> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = chunk.stream()
+                .map(line -> line.item().getRequestId())
+                .filter(id -> id != null)
+                .distinct()
+                .toList();
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of()
+                : itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Line> valid = new ArrayList<>(chunk.size());
+        for (Line line : chunk) {
+            Long requestId = line.item().getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                report.error(line.number(), "Request not found");
+            } else {
+                valid.add(line);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            persist(userId, valid, requests);
+            report.imported += valid.size();
+        } catch (DataAccessException e) {
+            // порцию отвергла база: повторяем по одной строке, чтобы в отчёт попали только виновные
+            log.warn("Import chunk for user {} rejected, retrying line by line", userId, e);
+            for (Line line : valid) {
+                try {
+                    persist(userId, List.of(line), requests);
+                    report.imported++;
+                } catch (DataAccessException lineError) {
+                    report.error(line.number(), "Rejected by the database");
+                }
+            }
+        }
+    }
+
+    // сущности создаются заново на каждую попытку: после отката у прежних уже проставлены id
+    private void persist(long userId, List<Line> lines, Map<Long, ItemRequest> requests) {
+        List<Item> items = lines.stream()
+                .map(line -> {
+                    Item item = ItemMapper.toItem(line.item(), userId);
+                    Long requestId = line.item().getRequestId();
+                    item.setRequest(requestId == null ? null : requests.get(requestId));
+                    return item;
+                })
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.saveAll(items);
+            itemIndex.putAll(items);
+            nameSuggester.putAll(items);
+            searchCache.invalidateAll();
+        });
+    }
+
+    private static Map<String, Integer> csvHeader(String header) {
+        List<String> names = csvFields(header);
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new ValidationException("Unknown CSV column: " + name + ", expected " + CSV_COLUMNS);
+            }
+            columns.put(name, i);
+        }
+        return columns;
+    }
+
+    private static ItemDto csvItem(String text, Map<String, Integer> columns) {
+        List<String> fields = csvFields(text);
+        if (fields.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " fields, got " + fields.size());
+        }
+        String available = field(fields, columns, "available");
+        String requestId = field(fields, columns, "requestId");
+        return ItemDto.builder()
+                .name(field(fields, columns, "name"))
+                .description(field(fields, columns, "description"))
+                .available(available == null ? null : parseBoolean(available))
+                .requestId(requestId == null ? null : parseId(requestId))
+                .build();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return switch (value.trim().toLowerCase()) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("available must be true or false");
+        };
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("requestId must be a number");
+        }
+    }
+
+    // RFC 4180 в пределах одной строки: поля через запятую, кавычки внутри поля удваиваются
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Line(long number, ItemDto item) {
+    }
+
+    private static class Report {
+        private final Map<Long, String> errors = new LinkedHashMap<>();
+        private long imported;
+        private long failed;
+
+        void error(long lineNumber, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.put(lineNumber, message);
+            }
+        }
+
+        ItemImportResultDto toDto() {
+            return ItemImportResultDto.builder()
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -5,16 +5,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
-import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
+import ru.practicum.shareit.booking.schedule.ItemSchedule;
+import ru.practicum.shareit.booking.schedule.TimeSlot;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.cache.ItemVersions;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchMetrics;
+import ru.practicum.shareit.item.search.ItemSearcher;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.mapper.CommentDtoMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -27,7 +42,10 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -35,11 +53,25 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final int DEFAULT_AVAILABILITY_DAYS = 30;
+    private static final int MAX_SUGGESTIONS = 50;
+    // размеры столбцов items.name и items.description
+    static final int MAX_NAME_LENGTH = 255;
+    static final int MAX_DESCRIPTION_LENGTH = 512;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingScheduleIndex scheduleIndex;
+    private final ItemSearcher itemSearcher;
+    private final InMemoryItemIndex itemIndex;
+    private final ItemSearchCache searchCache;
+    private final ItemSearchMetrics searchMetrics;
+    private final ItemNameSuggester nameSuggester;
+    private final ItemVersions itemVersions;
+    private final ItemDetailsCache itemDetailsCache;
 
     @Override
     @Transactional
@@ -55,6 +87,12 @@ public class ItemServiceImpl implements ItemService {
         if (!existingItem.getOwnerId().equals(userId)) {
             throw new NotFoundException("Only owner can edit item");
         }
+        Item before = Item.builder()
+                .id(existingItem.getId())
+                .name(existingItem.getName())
+                .description(existingItem.getDescription())
+                .available(existingItem.getAvailable())
+                .build();
 
         if (itemDto.getName() != null) {
             existingItem.setName(itemDto.getName());
@@ -66,22 +104,86 @@ public class ItemServiceImpl implements ItemService {
             existingItem.setAvailable(itemDto.getAvailable());
         }
 
-        return ItemMapper.toItemDto(itemRepository.save(existingItem));
+        Item saved = itemRepository.save(existingItem);
+        itemIndex.put(saved);
+        nameSuggester.put(saved);
+        searchCache.itemChanged(before, saved);
+        itemVersions.changed(itemId);
+        return ItemMapper.toItemDto(saved);
     }
 
 
-    public List<ItemDto> searchItems(String text) {
-        log.info("request to search {}", text);
+    public List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        String error = searchError(start, end, from, size);
+        if (error != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("item search rejected: {} (from={}, size={}, start={}, end={})",
+                        error, from, size, start, end);
+            }
+            throw new ValidationException(error);
+        }
         if (text.isBlank()) {
-            log.info("text is blank");
+            if (log.isDebugEnabled()) {
+                log.debug("item search skipped: blank text (from={}, size={})", from, size);
+            }
             return Collections.emptyList();
         }
-        log.info("all items: {}", itemRepository.findAll());
-        List<Item> foundItems = itemRepository.search(text.toLowerCase());
-        log.info("found items: {}", foundItems);
-        return foundItems.stream()
+        String query = searchMetrics.normalize(() -> ItemSearchCache.normalize(text));
+        List<ItemDto> result = start == null
+                ? searchCached(query, from, size)
+                : toDtos(searchMetrics.query(() -> itemSearcher.searchFree(query, start, end, from, size)));
+        if (log.isDebugEnabled() && searchMetrics.sampled()) {
+            log.atDebug()
+                    .addKeyValue("query", query)
+                    .addKeyValue("start", start)
+                    .addKeyValue("end", end)
+                    .addKeyValue("from", from)
+                    .addKeyValue("size", size)
+                    .addKeyValue("results", result.size())
+                    .log("item search");
+        }
+        return result;
+    }
+
+    private static String searchError(LocalDateTime start, LocalDateTime end, int from, int size) {
+        if (from < 0 || size <= 0) {
+            return "from must be >= 0 and size must be > 0";
+        }
+        if ((start == null) != (end == null)) {
+            return "start and end must be set together";
+        }
+        if (start != null && !end.isAfter(start)) {
+            return "end must be after start";
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, int size) {
+        if (size <= 0 || size > MAX_SUGGESTIONS) {
+            throw new ValidationException("size must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return nameSuggester.suggest(prefix, size);
+    }
+
+    private List<ItemDto> searchCached(String query, int from, int size) {
+        if (!searchCache.isEnabled()) {
+            return toDtos(searchMetrics.query(() -> itemSearcher.search(query, from, size)));
+        }
+        List<ItemDto> cached = searchCache.get(query, from, size);
+        if (cached != null) {
+            return cached;
+        }
+        long version = searchCache.version();
+        List<ItemDto> found = toDtos(searchMetrics.query(() -> itemSearcher.search(query, from, size)));
+        searchCache.put(query, from, size, found, version);
+        return found;
+    }
+
+    private List<ItemDto> toDtos(List<Item> items) {
+        return searchMetrics.map(() -> items.stream()
                 .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
 
@@ -97,41 +199,78 @@ public class ItemServiceImpl implements ItemService {
         if (userRepository.findById(userId).isEmpty()) {
             throw new NotFoundException("User with id " + userId + " not found");
         }
+        String error = newItemError(itemDto);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+        item.setOwnerId(userId);
+        Item saved = itemRepository.save(item);
+        itemIndex.put(saved);
+        nameSuggester.put(saved);
+        searchCache.itemChanged(null, saved);
+        return ItemMapper.toItemDto(saved);
+    }
+
+    // правила для новой вещи, общие с импортом; null, если ошибок нет
+    static String newItemError(ItemDto itemDto) {
         if (itemDto.getAvailable() == null) {
-            throw new ValidationException("Available must be not empty!");
+            return "Available must be not empty!";
         }
-        if (itemDto.getName() == "" || itemDto.getName() == null) {
-            throw new ValidationException("Name must be not empty!");
+        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
+            return "Name must be not empty!";
         }
         if (itemDto.getDescription() == null) {
-            throw new ValidationException("Description must be not empty!");
+            return "Description must be not empty!";
         }
-        item.setOwnerId(userId);
-        Item saved = itemRepository.save(item);
-        return ItemMapper.toItemDto(saved);
+        if (itemDto.getName().length() > MAX_NAME_LENGTH) {
+            return "Name must be at most " + MAX_NAME_LENGTH + " characters";
+        }
+        if (itemDto.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
     }
 
     @Override
     public ItemDtoBooking getItemWithComments(Long itemId) {
         log.info("request to get item with id {}", itemId);
+        return itemDetailsCache.isEnabled()
+                ? itemDetailsCache.get(itemId, () -> loadItemWithComments(itemId))
+                : loadItemWithComments(itemId);
+    }
+
+    private ItemDtoBooking loadItemWithComments(Long itemId) {
+        long version = itemVersions.current(itemId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Предмет не найден"));
 
-        List<Booking> bookings = bookingRepository.findByItem_idAndStatus(itemId, BookingStatus.WAITING);
+        Map<Long, BookingShortDto> lastBookings = new HashMap<>();
+        Map<Long, BookingShortDto> nextBookings = new HashMap<>();
+        Map<Long, LocalDateTime> nextStarts = collectLastAndNextBookings(List.of(itemId), lastBookings, nextBookings);
 
-        List<Comment> comments = commentRepository.findByItem_id(itemId);
+        List<CommentDto> comments = commentRepository.findViewsByItemIdIn(List.of(itemId)).stream()
+                .map(CommentDtoMapper::mapToDto)
+                .toList();
 
-        ItemDtoBooking itemDtoBooking = ItemMapper.mapToItemDtoBooking(item,
-                bookings,
-                comments);
+        itemVersions.built(itemId, version, nextStarts.get(itemId));
+        return ItemMapper.toItemDtoBooking(item, lastBookings.get(itemId), nextBookings.get(itemId), comments);
+    }
 
-        return itemDtoBooking;
+    @Override
+    public String getItemEtag(long itemId) {
+        return itemVersions.etag(itemId);
     }
 
     @Override
     public void deleteItem(Long userId, Long itemId) {
         log.info("Удаление предмета");
-        itemRepository.deleteByUserIdAndItemId(userId, itemId);
+        if (itemRepository.deleteByUserIdAndItemId(userId, itemId) > 0) {
+            scheduleIndex.forgetItem(itemId);
+            itemIndex.remove(itemId);
+            nameSuggester.remove(itemId);
+            itemVersions.forget(itemId);
+            searchCache.invalidateAll();
+        }
     }
 
     @Override
@@ -161,30 +300,77 @@ public class ItemServiceImpl implements ItemService {
                 .build();
 
         Comment saved = commentRepository.save(comment);
+        itemVersions.changed(itemId);
 
         return ItemMapper.mapToDto(saved);
     }
 
 
-    public List<Comment> getComments(long userId) {
+    public List<CommentDto> getComments(long userId) {
         log.info("Запрос на получение всех комментариев user с id: " + userId);
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
 
-        return commentRepository.findByAuthorId(userId);
+        return commentRepository.findByAuthorIdOrderByCreated(userId).stream()
+                .map(ItemMapper::mapToDto)
+                .toList();
     }
 
-    public List<ItemDto> allItemsFormUser(long userId) {
-        log.info("reauest to get all items from user with id: {}", userId);
-        User user = userRepository.findById(userId)
+    public List<ItemDtoBooking> allItemsFormUser(long userId, int from, int size) {
+        log.info("reauest to get all items from user with id: {}, from={}, size={}", userId, from, size);
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("from must be >= 0 and size must be > 0");
+        }
+        userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
-        List<Item> item = itemRepository.findByOwnerId(userId);
+        List<ItemDto> items = itemRepository.findDtosByOwnerId(userId, size, from);
+        if (items.isEmpty()) {
+            return List.of();
+        }
 
-        return item.stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList()
-                );
+        List<Long> itemIds = items.stream().map(ItemDto::getId).toList();
+        Map<Long, BookingShortDto> lastBookings = new HashMap<>();
+        Map<Long, BookingShortDto> nextBookings = new HashMap<>();
+        collectLastAndNextBookings(itemIds, lastBookings, nextBookings);
+        Map<Long, List<CommentDto>> comments = commentRepository.findViewsByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId,
+                        Collectors.mapping(CommentDtoMapper::mapToDto, Collectors.toList())));
+
+        return ItemMapper.toItemDtoBookingList(items, lastBookings, nextBookings, comments);
+    }
+
+    // возвращает начало следующей брони по вещам: до этого момента last/next не меняются
+    private Map<Long, LocalDateTime> collectLastAndNextBookings(List<Long> itemIds,
+                                                                Map<Long, BookingShortDto> lastBookings,
+                                                                Map<Long, BookingShortDto> nextBookings) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, LocalDateTime> nextStarts = new HashMap<>();
+        for (BookingShortView booking : bookingRepository.findLastAndNextApproved(itemIds, now)) {
+            if (booking.getStart().isAfter(now)) {
+                nextBookings.put(booking.getItemId(), BookingMapper.toShortDto(booking));
+                nextStarts.put(booking.getItemId(), booking.getStart());
+            } else {
+                lastBookings.put(booking.getItemId(), BookingMapper.toShortDto(booking));
+            }
+        }
+        return nextStarts;
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plusDays(DEFAULT_AVAILABILITY_DAYS) : to;
+        if (!end.isAfter(start)) {
+            throw new ValidationException("to must be after from");
+        }
+        if (!scheduleIndex.isLoaded(itemId) && !itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item not found with id: " + itemId);
+        }
+
+        List<TimeSlot> busy = scheduleIndex.busyBetween(itemId, start, end);
+        return ItemMapper.toItemAvailabilityDto(itemId, start, end, busy, ItemSchedule.gaps(busy, start, end));
     }
 
 }
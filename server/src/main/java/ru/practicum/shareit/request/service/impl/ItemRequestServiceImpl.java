@@ -64,21 +64,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .map(ItemRequest::getId)
                 .collect(Collectors.toList());
 
-        List<Item> items = itemRepository.findAllByRequestIdIn(requestIds);
-
-        Map<Long, List<Item>> itemsByRequestId = items.stream()
-                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        Map<Long, List<ItemDto>> itemsByRequestId = itemRepository.findDtosByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
 
         return requests.stream()
                 .map(request -> ItemRequestDto.builder()
                         .id(request.getId())
                         .description(request.getDescription())
                         .created(request.getCreated())
-                        .items(
-                                ItemMapper.toItemDtoList(
-                                        itemsByRequestId.getOrDefault(request.getId(), List.of())
-                                )
-                        )
+                        .items(itemsByRequestId.getOrDefault(request.getId(), List.of()))
                         .build())
                 .collect(Collectors.toList());
     }
@@ -93,21 +87,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .map(ItemRequest::getId)
                 .collect(Collectors.toList());
 
-        List<Item> items = itemRepository.findAllByRequestIdIn(requestIds);
-
-        Map<Long, List<Item>> itemsByRequestId = items.stream()
-                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        Map<Long, List<ItemDto>> itemsByRequestId = itemRepository.findDtosByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
 
         return requests.stream()
                 .map(request -> ItemRequestDto.builder()
                         .id(request.getId())
                         .description(request.getDescription())
                         .created(request.getCreated())
-                        .items(
-                                ItemMapper.toItemDtoList(
-                                        itemsByRequestId.getOrDefault(request.getId(), List.of())
-                                )
-                        )
+                        .items(itemsByRequestId.getOrDefault(request.getId(), List.of()))
                         .build())
                 .collect(Collectors.toList());
     }
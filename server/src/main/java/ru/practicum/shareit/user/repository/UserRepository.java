@@ -1,14 +1,23 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Optional<User> findByEmail(String email);
+    // на PostgreSQL LOWER(email) обслуживается уникальным индексом ux_users_email_lower (миграция V5)
+    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)")
+    Optional<User> findByEmailIgnoringCase(@Param("email") String email);
+
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    List<UserDto> findAllDtos();
 
 }
\ No newline at end of file
@@ -2,10 +2,13 @@ package ru.practicum.shareit.user.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.cache.ItemVersions;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -19,12 +22,17 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String EMAIL_TAKEN = "Email уже используется";
+    private static final String EMAIL_TAKEN_BY_OTHER = "Email is already taken by another user";
+
     private final UserRepository repository;
+    private final CommentRepository commentRepository;
+    private final ItemVersions itemVersions;
 
     @Override
-    public List<User> getAllUsers() {
+    public List<UserDto> getAllUsers() {
         log.info("Запрос на всех пользователей");
-        return repository.findAll();
+        return repository.findAllDtos();
     }
 
     @Override
@@ -39,16 +47,8 @@ public class UserServiceImpl implements UserService {
     public User saveUser(User user) {
         log.info("Запрос на создание пользователя");
         validate(user);
-
-        Optional<User> existingUser = repository.findAll().stream()
-                .filter(u -> u.getEmail().equalsIgnoreCase(user.getEmail()))
-                .findFirst();
-
-        if (existingUser.isPresent()) {
-            throw new ConflictException("Email уже используется");
-        }
-
-        return repository.save(user);
+        checkEmailIsFree(user.getEmail(), null, EMAIL_TAKEN);
+        return saveChecked(user, EMAIL_TAKEN);
     }
 
     @Override
@@ -58,21 +58,20 @@ public class UserServiceImpl implements UserService {
         User existingUser = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден: id=" + id));
 
+        boolean renamed = userDto.getName() != null && !userDto.getName().equals(existingUser.getName());
         if (userDto.getName() != null) {
             existingUser.setName(userDto.getName());
         }
         if (userDto.getEmail() != null) {
-            Optional<User> userWithEmail = repository.findByEmail(userDto.getEmail());
-            if (userWithEmail.isPresent() && !userWithEmail.get().getId().equals(id)) {
-                throw new ConflictException("Email is already taken by another user");
-            }
+            checkEmailIsFree(userDto.getEmail(), id, EMAIL_TAKEN_BY_OTHER);
             existingUser.setEmail(userDto.getEmail());
         }
-
-        if (userDto.getEmail() != null) {
-            existingUser.setEmail(userDto.getEmail());
+        User saved = saveChecked(existingUser, EMAIL_TAKEN_BY_OTHER);
+        if (renamed) {
+            // имя автора выводится в комментариях карточек вещей - их ETag и кэш должны устареть
+            commentRepository.findItemIdsByAuthorId(id).forEach(itemVersions::changed);
         }
-        return repository.save(existingUser);
+        return saved;
     }
 
     @Override
@@ -82,6 +81,22 @@ public class UserServiceImpl implements UserService {
         repository.deleteById(id);
     }
 
+    private void checkEmailIsFree(String email, Long userId, String conflictMessage) {
+        Optional<User> owner = repository.findByEmailIgnoringCase(email);
+        if (owner.isPresent() && !owner.get().getId().equals(userId)) {
+            throw new ConflictException(conflictMessage);
+        }
+    }
+
+    // проверка выше не защищает от параллельной регистрации с тем же адресом - это делает уникальный индекс
+    private User saveChecked(User user, String conflictMessage) {
+        try {
+            return repository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException(conflictMessage);
+        }
+    }
+
     public void validate(User user) {
         if (user.getEmail() == null) {
             throw new ValidationException("Email not found");
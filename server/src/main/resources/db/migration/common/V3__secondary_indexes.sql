@@ -0,0 +1,18 @@
+-- вторичные индексы под запросы репозиториев; проверяются EXPLAIN-тестом RepositoryIndexUsageTest
+
+-- бронирования пользователя по убыванию start_time; findFirstByBookerIdAndItemId... для комментариев
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_time);
+-- last/next, пересечения периодов, бронирования вещей владельца
+CREATE INDEX ix_bookings_item_status ON bookings (item_id, status);
+-- загрузка ещё не закончившихся бронирований в индекс расписания
+CREATE INDEX ix_bookings_end_time ON bookings (end_time);
+
+CREATE INDEX ix_items_owner ON items (owner_id);
+CREATE INDEX ix_items_request ON items (request_id);
+
+CREATE INDEX ix_comments_item ON comments (item_id);
+CREATE INDEX ix_comments_author_created ON comments (user_id, created);
+
+CREATE INDEX ix_items_request_requestor_created ON items_request (requestor_id, created);
+-- чужие запросы: requestor_id <> ? индексом не отсекается, поэтому читаем по порядку created
+CREATE INDEX ix_items_request_created ON items_request (created);
@@ -0,0 +1,5 @@
+-- H2 не умеет индексы по выражениям: уникальность без учёта регистра держит индекс по вычисляемому столбцу.
+-- Для поиска по LOWER(email) оптимизатор H2 его не применяет - индексный поиск есть только на PostgreSQL
+ALTER TABLE users ADD COLUMN email_lower VARCHAR(512) GENERATED ALWAYS AS (LOWER(email));
+CREATE UNIQUE INDEX ux_users_email_lower ON users (email_lower);
+ALTER TABLE users DROP CONSTRAINT IF EXISTS UQ_USER_EMAIL;
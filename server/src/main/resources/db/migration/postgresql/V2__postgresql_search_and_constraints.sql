@@ -0,0 +1,59 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Пересекающиеся активные брони, накопившиеся до ограничения, иначе не дают его создать.
+-- Оставляется подтверждённая бронь, среди равных по статусу - более ранняя (меньший id); остальные
+-- из каждого пересечения переводятся в REJECTED, их id выводятся в лог миграции (RAISE NOTICE).
+-- Проверяются только брони, у которых есть пересечение, временный индекс убирает полный перебор.
+CREATE INDEX ix_bookings_overlap_cleanup ON bookings (item_id, start_time);
+DO $$
+DECLARE
+  b RECORD;
+BEGIN
+  FOR b IN
+    SELECT x.id, x.item_id, x.start_time, x.end_time, x.status
+    FROM bookings x
+    WHERE x.status IN ('WAITING', 'APPROVED')
+      AND EXISTS (
+        SELECT 1 FROM bookings y
+        WHERE y.item_id = x.item_id AND y.id <> x.id
+          AND y.status IN ('WAITING', 'APPROVED')
+          AND y.start_time < x.end_time AND y.end_time > x.start_time
+      )
+    ORDER BY x.item_id, CASE x.status WHEN 'APPROVED' THEN 0 ELSE 1 END, x.id
+  LOOP
+    IF EXISTS (
+      SELECT 1 FROM bookings o
+      WHERE o.item_id = b.item_id AND o.id <> b.id
+        AND o.status IN ('WAITING', 'APPROVED')
+        AND o.start_time < b.end_time AND o.end_time > b.start_time
+        AND (o.status = 'APPROVED' AND b.status = 'WAITING' OR o.status = b.status AND o.id < b.id)
+    ) THEN
+      UPDATE bookings SET status = 'REJECTED' WHERE id = b.id;
+      RAISE NOTICE 'booking % (item %) overlaps an earlier active booking, set to REJECTED', b.id, b.item_id;
+    END IF;
+  END LOOP;
+END $$;
+DROP INDEX ix_bookings_overlap_cleanup;
+
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS ex_booking_item_period;
+ALTER TABLE bookings ADD CONSTRAINT ex_booking_item_period
+  EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+  WHERE (status IN ('WAITING', 'APPROVED'));
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+  setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+  setweight(to_tsvector('russian', coalesce(description, '')), 'B') ||
+  setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS ix_items_search_vector ON items USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS ix_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops);
+
+-- строки, вставленные до перехода на последовательности, получили id от identity: сдвигаем последовательности за них
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM users), (SELECT last_value FROM users_seq)));
+SELECT setval('items_request_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM items_request), (SELECT last_value FROM items_request_seq)));
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM items), (SELECT last_value FROM items_seq)));
+SELECT setval('bookings_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM bookings), (SELECT last_value FROM bookings_seq)));
+SELECT setval('comments_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM comments), (SELECT last_value FROM comments_seq)));
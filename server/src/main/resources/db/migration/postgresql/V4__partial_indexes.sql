@@ -0,0 +1,8 @@
+-- частичные индексы: в них попадает только малая «живая» часть строк
+
+-- заявки, ждущие решения владельца (state=WAITING), по вещам
+CREATE INDEX ix_bookings_waiting_item ON bookings (item_id, start_time) WHERE status = 'WAITING';
+-- активные бронирования для проверки пересечений и индекса расписания
+CREATE INDEX ix_bookings_active_item_end ON bookings (item_id, end_time) WHERE status IN ('WAITING', 'APPROVED');
+-- перестроение поискового индекса в памяти читает только доступные вещи
+CREATE INDEX ix_items_available ON items (id) WHERE available;
@@ -0,0 +1,5 @@
+-- уникальность email без учёта регистра; поиск по lower(email) идёт по этому же индексу.
+-- Если в базе уже есть адреса, различающиеся только регистром, миграция упадёт - их нужно разобрать вручную
+CREATE UNIQUE INDEX ux_users_email_lower ON users (lower(email));
+-- регистрозависимое ограничение из V1 новым индексом перекрывается
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uq_user_email;
@@ -0,0 +1,153 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownedBy;
+
+// Запуск: mvn -pl server test -Dtest=ListProjectionBenchmarkTest -Dshareit.benchmark=true
+// "До": сущности в контексте персистентности (со снимками для dirty checking) и копирование в DTO.
+// "После": запросы-проекции, которые читают только нужные ответу колонки.
+@Slf4j
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ListProjectionBenchmarkTest {
+
+    static final int ROWS = 1_000;
+    static final int WARMUP = 20;
+    static final int ROUNDS = 50;
+
+    final BookingRepository bookingRepository;
+    final ItemRepository itemRepository;
+    final UserRepository userRepository;
+    final TestEntityManager manager;
+    User owner;
+    List<Long> requestIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = manager.persist(User.builder().name("owner").email("owner@mail.ru").build());
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < ROWS; i++) {
+            User user = manager.persist(User.builder().name("user " + i).email("user" + i + "@mail.ru").build());
+            ItemRequest request = manager.persist(ItemRequest.builder().description("нужна вещь " + i)
+                    .created(base).requestor(user).build());
+            requestIds.add(request.getId());
+            Item item = manager.persist(Item.builder().name("вещь " + i).description("описание вещи " + i)
+                    .available(true).ownerId(owner.getId()).request(request).build());
+            manager.persist(Booking.builder().start(base.plusHours(i)).endTime(base.plusHours(i).plusMinutes(30))
+                    .item(item).booker(user).status(BookingStatus.WAITING).build());
+        }
+        manager.flush();
+        manager.clear();
+    }
+
+    @DisplayName("Списки: сущности против проекций")
+    @Test
+    void listEndpoints() {
+        EntityManager em = manager.getEntityManager();
+
+        compare("bookings of owner",
+                () -> em.createQuery("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+                                "WHERE i.ownerId = :ownerId ORDER BY b.start DESC, b.id DESC", Booking.class)
+                        .setParameter("ownerId", owner.getId())
+                        .setMaxResults(ROWS)
+                        .getResultList().stream()
+                        .map(BookingMapper::toBookingResponseDto)
+                        .toList(),
+                () -> bookingRepository.findPage(ownedBy(owner.getId()), 0, ROWS).stream()
+                        .map(BookingMapper::toBookingResponseDto)
+                        .toList());
+
+        compare("items of owner",
+                () -> em.createQuery("SELECT i FROM Item i WHERE i.ownerId = :ownerId ORDER BY i.id", Item.class)
+                        .setParameter("ownerId", owner.getId())
+                        .setMaxResults(ROWS)
+                        .getResultList().stream()
+                        .map(ItemMapper::toItemDto)
+                        .toList(),
+                () -> itemRepository.findDtosByOwnerId(owner.getId(), ROWS, 0));
+
+        compare("items of requests",
+                () -> ItemMapper.toItemDtoList(em.createQuery(
+                                "SELECT i FROM Item i WHERE i.request.id IN :requestIds", Item.class)
+                        .setParameter("requestIds", requestIds)
+                        .getResultList()),
+                () -> itemRepository.findDtosByRequestIdIn(requestIds));
+
+        compare("users",
+                () -> userRepository.findAll().stream()
+                        .map(UserMapper::toUserDto)
+                        .toList(),
+                userRepository::findAllDtos);
+    }
+
+    private void compare(String name, Supplier<List<?>> entities, Supplier<List<?>> projections) {
+        for (int i = 0; i < WARMUP; i++) {
+            run(entities);
+            run(projections);
+        }
+        long[] before = new long[2];
+        long[] after = new long[2];
+        for (int i = 0; i < ROUNDS; i++) {
+            long[] entityRun = run(entities);
+            long[] projectionRun = run(projections);
+            before[0] += entityRun[0];
+            before[1] += entityRun[1];
+            after[0] += projectionRun[0];
+            after[1] += projectionRun[1];
+        }
+        log.info("{}: entities {} us, {} KB per call; projections {} us, {} KB per call", name,
+                before[0] / ROUNDS / 1_000, before[1] / ROUNDS / 1_024,
+                after[0] / ROUNDS / 1_000, after[1] / ROUNDS / 1_024);
+    }
+
+    // {время в наносекундах, байты, выделенные потоком}; flush включает dirty checking загруженных сущностей
+    private long[] run(Supplier<List<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long started = System.nanoTime();
+        List<?> result = query.get();
+        manager.flush();
+        long elapsed = System.nanoTime() - started;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        if (result.size() < ROWS) {
+            throw new IllegalStateException("expected at least " + ROWS + " rows, got " + result.size());
+        }
+        manager.clear();
+        return new long[]{elapsed, allocated};
+    }
+}
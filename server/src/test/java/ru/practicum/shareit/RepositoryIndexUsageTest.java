@@ -0,0 +1,200 @@
+package ru.practicum.shareit;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookedBy;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownedBy;
+
+// Каждый запрос репозитория выполняется, его SQL перехватывается и прогоняется через EXPLAIN на H2:
+// в плане не должно быть полного чтения таблицы. Не проверяются запросы, которые на H2 не воспроизвести:
+// searchFullText/searchTrigram и search с вариантами *Free (на PostgreSQL их обслуживают GIN-индексы из V2),
+// findAllByAvailableTrue - он читает все доступные вещи по назначению (на PostgreSQL - частичный индекс V4),
+// findAllByRequestorIdNotOrderByCreatedDesc - условие requestor_id <> ? выбирает почти всю таблицу,
+// и findByEmailIgnoringCase - индекс по LOWER(email) есть только на PostgreSQL, в H2 уникальность держит
+// индекс по вычисляемому столбцу, который оптимизатор к выражению не применяет.
+// Миграции db/migration/postgresql (частичные индексы V4, ux_users_email_lower из V5) здесь не проверяются.
+@DataJpaTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RepositoryIndexUsageTest {
+
+    static final List<String> STATEMENTS = new ArrayList<>();
+
+    final BookingRepository bookingRepository;
+    final ItemRepository itemRepository;
+    final CommentRepository commentRepository;
+    final ItemRequestRepository itemRequestRepository;
+    final TestEntityManager manager;
+    User owner;
+    User booker;
+    Item item;
+    ItemRequest request;
+    Booking booking;
+
+    @TestConfiguration
+    static class SqlRecorderConfig {
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = manager.persist(User.builder().name("owner").email("owner@mail.ru").build());
+        booker = manager.persist(User.builder().name("booker").email("booker@mail.ru").build());
+        request = manager.persist(ItemRequest.builder().description("нужна дрель").created(now).requestor(booker)
+                .build());
+        item = manager.persist(Item.builder().name("дрель").description("дрель ударная").available(true)
+                .ownerId(owner.getId()).request(request).build());
+        booking = manager.persist(Booking.builder().start(now.minusDays(2)).endTime(now.minusDays(1)).item(item)
+                .booker(booker).status(BookingStatus.APPROVED).build());
+        manager.persist(Comment.builder().author(booker).booking(booking).item(item).description("хорошая")
+                .created(now).build());
+        manager.flush();
+        manager.clear();
+    }
+
+    @DisplayName("Запросы репозиториев используют индексы")
+    @Test
+    void repositoryQueriesUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = List.of(item.getId());
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("BookingRepository.findWithItemAndBookerById",
+                () -> bookingRepository.findWithItemAndBookerById(booking.getId()));
+        queries.put("BookingRepository.findFirstByBookerIdAndItemIdAndEndTimeBefore...",
+                () -> bookingRepository.findFirstByBookerIdAndItemIdAndEndTimeBeforeOrderByEndTimeDesc(
+                        booker.getId(), item.getId(), now));
+        queries.put("BookingRepository.findLastAndNextApproved",
+                () -> bookingRepository.findLastAndNextApproved(itemIds, now));
+        queries.put("BookingRepository.existsByItemIdAndStatusIn...",
+                () -> bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndTimeAfter(
+                        item.getId(), BookingScheduleIndex.ACTIVE_STATUSES, now.plusDays(1), now));
+        queries.put("BookingRepository.findByItemIdAndStatusInAndEndTimeAfter",
+                () -> bookingRepository.findByItemIdAndStatusInAndEndTimeAfter(
+                        item.getId(), BookingScheduleIndex.ACTIVE_STATUSES, now));
+        queries.put("BookingRepository.updateStatus",
+                () -> bookingRepository.updateStatus(booking.getId(), owner.getId(), BookingStatus.WAITING,
+                        BookingStatus.APPROVED));
+        queries.put("BookingRepository.findViewById", () -> bookingRepository.findViewById(booking.getId()));
+        queries.put("BookingRepository.findViewsByIdIn",
+                () -> bookingRepository.findViewsByIdIn(List.of(booking.getId())));
+        queries.put("BookingRepository.findActivePeriods",
+                () -> bookingRepository.findActivePeriods(BookingScheduleIndex.ACTIVE_STATUSES, now));
+        queries.put("BookingRepository.findActivePeriodsOverlapping",
+                () -> bookingRepository.findActivePeriodsOverlapping(itemIds, BookingScheduleIndex.ACTIVE_STATUSES,
+                        now, now.plusDays(1)));
+        queries.put("BookingRepository.findPage(bookedBy)",
+                () -> bookingRepository.findPage(bookedBy(booker.getId()), 0, 10));
+        queries.put("BookingRepository.findPage(ownedBy)",
+                () -> bookingRepository.findPage(ownedBy(owner.getId()), 0, 10));
+
+        queries.put("ItemRepository.findByOwnerId", () -> itemRepository.findByOwnerId(owner.getId()));
+        queries.put("ItemRepository.findDtosByOwnerId",
+                () -> itemRepository.findDtosByOwnerId(owner.getId(), 10, 0));
+        queries.put("ItemRepository.findByIdForUpdate", () -> itemRepository.findByIdForUpdate(item.getId()));
+        queries.put("ItemRepository.findAllByIdForUpdate", () -> itemRepository.findAllByIdForUpdate(itemIds));
+        queries.put("ItemRepository.deleteByUserIdAndItemId",
+                () -> itemRepository.deleteByUserIdAndItemId(booker.getId(), item.getId()));
+        queries.put("ItemRepository.findDtosByRequestIdIn",
+                () -> itemRepository.findDtosByRequestIdIn(List.of(request.getId())));
+        queries.put("ItemRepository.findAllByRequestId", () -> itemRepository.findAllByRequestId(request.getId()));
+        queries.put("ItemRepository.findByRequestId", () -> itemRepository.findByRequestId(request.getId()));
+
+        queries.put("CommentRepository.findByAuthorIdOrderByCreated",
+                () -> commentRepository.findByAuthorIdOrderByCreated(booker.getId()));
+        queries.put("CommentRepository.findViewsByItemIdIn", () -> commentRepository.findViewsByItemIdIn(itemIds));
+        queries.put("CommentRepository.findItemIdsByAuthorId",
+                () -> commentRepository.findItemIdsByAuthorId(booker.getId()));
+
+        queries.put("ItemRequestRepository.findByRequestorIdOrderByCreatedDesc",
+                () -> itemRequestRepository.findByRequestorIdOrderByCreatedDesc(booker.getId()));
+
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            STATEMENTS.clear();
+            query.run();
+            if (STATEMENTS.isEmpty()) {
+                fail(name + ": no SQL was executed");
+            }
+            String sql = STATEMENTS.getLast();
+            String plan = explain(sql);
+            if (plan.contains("tableScan")) {
+                failures.add(name + "\n" + plan);
+            }
+        });
+        assertTrue(failures.isEmpty(), "Full table scans:\n" + String.join("\n\n", failures));
+    }
+
+    // значения параметров на выбор индекса в H2 не влияют, подставляются значения нужного типа
+    private String explain(String sql) {
+        return manager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                bindSampleParameters(statement);
+                try (ResultSet result = statement.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (result.next()) {
+                        plan.append(result.getString(1));
+                    }
+                    return plan.toString();
+                }
+            }
+        });
+    }
+
+    private static void bindSampleParameters(PreparedStatement statement) throws java.sql.SQLException {
+        ParameterMetaData parameters = statement.getParameterMetaData();
+        for (int i = 1; i <= parameters.getParameterCount(); i++) {
+            switch (parameters.getParameterType(i)) {
+                case Types.TIMESTAMP -> statement.setTimestamp(i, Timestamp.valueOf(LocalDateTime.now()));
+                case Types.BOOLEAN -> statement.setBoolean(i, true);
+                case Types.VARCHAR, Types.CHAR -> statement.setString(i, BookingStatus.APPROVED.name());
+                default -> statement.setLong(i, 1L);
+            }
+        }
+    }
+}
@@ -13,10 +13,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BatchValidationException;
 import ru.practicum.shareit.exception.NoAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -28,10 +31,12 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -152,6 +157,44 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(updatedBooking.getStatus().toString())));
     }
 
+    @DisplayName("Пакетное подтверждение бронирований владельцем")
+    @Test
+    void updateStatusesBatchTest() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        when(bookingService.approveBookings(eq(owner.getId()), any())).thenReturn(List.of(
+                BookingDecisionResultDto.builder().bookingId(1L).status(BookingStatus.APPROVED).build(),
+                BookingDecisionResultDto.builder().bookingId(2L).error("Booking is already APPROVED").build()));
+
+        mockMvc.perform(patch("/bookings/owner/batch")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .content(mapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].error", is("Booking is already APPROVED")));
+    }
+
+    @DisplayName("Пакетное создание с ошибками в строках")
+    @Test
+    void createBookingsBatchWithLineErrorsTest() throws Exception {
+        List<BookingRequestDto> requests = List.of(BookingRequestDto.builder().itemId(item.getId()).build());
+        when(bookingService.addBookings(eq(tipUser.getId()), any()))
+                .thenThrow(new BatchValidationException("Bookings were not created",
+                        Map.of(0, "itemId, start and end are required")));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", tipUser.getId())
+                        .content(mapper.writeValueAsString(requests))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.lines.0", is("itemId, start and end are required")));
+    }
+
     @DisplayName("get booking by id")
     @Test
     void getBookingByIdTest() throws Exception {
@@ -187,7 +230,7 @@ public class BookingControllerTest {
     void findBookingsForNonExistentUser() throws Exception {
         long userId = 888L;
 
-        when(bookingService.getUserBookings(userId, "ALL"))
+        when(bookingService.getUserBookings(userId, "ALL", 0, 10, null, null))
                 .thenThrow(new NotFoundException("Booking not found"));
 
         mockMvc.perform(get("/bookings")
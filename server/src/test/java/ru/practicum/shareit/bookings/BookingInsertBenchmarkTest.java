@@ -0,0 +1,98 @@
+package ru.practicum.shareit.bookings;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Запуск: mvn -pl server test -Dtest=BookingInsertBenchmarkTest -Dshareit.benchmark=true
+// "До": INSERT сразу при persist - так вёл себя IDENTITY, которому id нужен немедленно.
+// "После": id из последовательности, один flush - вставки уходят батчами по hibernate.jdbc.batch_size.
+@Slf4j
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingInsertBenchmarkTest {
+
+    static final int ROWS = 5_000;
+    static final int ROUNDS = 3;
+
+    final BookingRepository bookingRepository;
+    final TestEntityManager manager;
+    User booker;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = manager.persist(User.builder().name("owner").email("owner@mail.ru").build());
+        booker = manager.persist(User.builder().name("booker").email("booker@mail.ru").build());
+        item = manager.persist(Item.builder().name("дрель").description("дрель").available(true)
+                .ownerId(owner.getId()).build());
+        manager.flush();
+    }
+
+    @DisplayName("Вставки в секунду: по одной и батчем")
+    @Test
+    void insertThroughput() {
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Booking> single = bookings(round * 2);
+            long started = System.nanoTime();
+            for (Booking booking : single) {
+                manager.persist(booking);
+                manager.flush();
+                manager.detach(booking);
+            }
+            double singlePerSecond = perSecond(started);
+            manager.clear();
+
+            List<Booking> batched = bookings(round * 2 + 1);
+            started = System.nanoTime();
+            bookingRepository.insertAll(batched);
+            double batchedPerSecond = perSecond(started);
+            manager.clear();
+
+            log.info("round {}: one by one {} inserts/s, batched {} inserts/s", round,
+                    Math.round(singlePerSecond), Math.round(batchedPerSecond));
+        }
+    }
+
+    private List<Booking> bookings(int series) {
+        LocalDateTime base = LocalDateTime.now().plusYears(1 + series);
+        List<Booking> bookings = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            bookings.add(Booking.builder()
+                    .start(base.plusHours(i))
+                    .endTime(base.plusHours(i).plusMinutes(30))
+                    .item(manager.getEntityManager().getReference(Item.class, item.getId()))
+                    .booker(manager.getEntityManager().getReference(User.class, booker.getId()))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        return bookings;
+    }
+
+    private static double perSecond(long startedNanos) {
+        return ROWS / ((System.nanoTime() - startedNanos) / 1e9);
+    }
+}
@@ -3,6 +3,10 @@ package ru.practicum.shareit.bookings;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,6 +16,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -19,10 +26,18 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookedBy;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.inState;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownedBy;
 
 @Transactional
 @ExtendWith(SpringExtension.class)
@@ -67,9 +82,199 @@ public class BookingRepositoryTest {
     @DisplayName("Получение бронирования по id забронировавшего пользователя")
     @Test
     void getByBookerId() {
-        List<Booking> bookingBooker = bookingRepository.findByBookerIdOrderByStartDesc(userBooker.getId());
+        List<Booking> bookingBooker = bookingRepository.findAll(
+                bookedBy(userBooker.getId()).and(inState(BookingState.ALL, LocalDateTime.now())));
 
         assertThat(bookingBooker.getFirst().getBooker(), equalTo(userBooker));
     }
 
+    @DisplayName("Фильтрация бронирований по состоянию выполняется в запросе")
+    @Test
+    void filterByState() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = persistBooking(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Booking current = persistBooking(now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        Booking future = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.REJECTED);
+
+        assertThat(findForOwner(BookingState.PAST, now), containsInAnyOrder(past, booking));
+        assertThat(findForOwner(BookingState.CURRENT, now), equalTo(List.of(current)));
+        assertThat(findForOwner(BookingState.FUTURE, now), equalTo(List.of(future)));
+        assertThat(findForOwner(BookingState.REJECTED, now), equalTo(List.of(future)));
+        assertThat(findForOwner(BookingState.WAITING, now), equalTo(List.of(booking)));
+    }
+
+    @DisplayName("Постраничная выдача по offset и keyset-курсору")
+    @Test
+    void pageByOffsetAndCursor() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking first = persistBooking(now.plusDays(3), now.plusDays(4), BookingStatus.WAITING);
+        Booking second = persistBooking(now.plusDays(2), now.plusDays(3), BookingStatus.WAITING);
+        Booking third = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        assertThat(ids(bookingRepository.findPage(inState(BookingState.FUTURE, now), 1, 2)),
+                equalTo(List.of(second.getId(), third.getId())));
+        assertThat(ids(bookingRepository.findPage(inState(BookingState.FUTURE, now)
+                        .and(after(first.getStart(), first.getId())), 0, 1)),
+                equalTo(List.of(second.getId())));
+    }
+
+    private List<Booking> findForOwner(BookingState state, LocalDateTime now) {
+        return bookingRepository.findAll(ownedBy(owner.getId()).and(inState(state, now)));
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return manager.persistAndFlush(Booking.builder()
+                .start(start)
+                .endTime(end)
+                .item(itemForBooking)
+                .booker(userBooker)
+                .status(status)
+                .build());
+    }
+
+
+    @DisplayName("Условное изменение статуса только владельцем и только из WAITING")
+    @Test
+    void updateStatusIfWaiting() {
+        assertThat(bookingRepository.updateStatus(booking.getId(), userBooker.getId(),
+                BookingStatus.WAITING, BookingStatus.APPROVED), equalTo(0));
+        assertThat(bookingRepository.updateStatus(booking.getId(), owner.getId(),
+                BookingStatus.WAITING, BookingStatus.APPROVED), equalTo(1));
+        assertThat(bookingRepository.updateStatus(booking.getId(), owner.getId(),
+                BookingStatus.WAITING, BookingStatus.REJECTED), equalTo(0));
+
+        BookingView view = bookingRepository.findViewById(booking.getId()).orElseThrow();
+        assertThat(view.getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(view.getItemOwnerId(), equalTo(owner.getId()));
+        assertThat(view.getBookerId(), equalTo(userBooker.getId()));
+        assertThat(view.getItemName(), equalTo(itemForBooking.getName()));
+    }
+
+
+    @DisplayName("Пакетное изменение статусов одним JDBC batch")
+    @Test
+    void updateStatusesIfWaitingBatch() {
+        Booking second = manager.persist(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(2))
+                .item(itemForBooking)
+                .booker(userBooker)
+                .status(BookingStatus.APPROVED)
+                .build());
+        manager.flush();
+
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        statuses.put(booking.getId(), BookingStatus.REJECTED);
+        statuses.put(second.getId(), BookingStatus.REJECTED);
+        int[] updated = bookingRepository.updateStatusesIfWaiting(owner.getId(), statuses);
+
+        assertThat(updated.length, equalTo(2));
+        assertThat(updated[0], equalTo(1));
+        assertThat(updated[1], equalTo(0));
+        assertThat(bookingRepository.updateStatusesIfWaiting(userBooker.getId(),
+                Map.of(second.getId(), BookingStatus.REJECTED))[0], equalTo(0));
+
+        manager.clear();
+        List<BookingView> views = bookingRepository.findViewsByIdIn(statuses.keySet());
+        assertThat(views.stream().map(BookingView::getStatus).toList(),
+                containsInAnyOrder(BookingStatus.REJECTED, BookingStatus.APPROVED));
+    }
+
+
+    @DisplayName("Пакетная вставка с получением сгенерированных id")
+    @Test
+    void insertAllBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> bookings = List.of(
+                Booking.builder().start(start).endTime(start.plusDays(1)).item(itemForBooking).booker(userBooker)
+                        .status(BookingStatus.WAITING).build(),
+                Booking.builder().start(start.plusDays(2)).endTime(start.plusDays(3)).item(itemForBooking)
+                        .booker(userBooker).status(BookingStatus.WAITING).build());
+
+        bookingRepository.insertAll(bookings);
+
+        assertThat(bookings.get(0).getId() != null && bookings.get(1).getId() != null, equalTo(true));
+        assertThat(bookingRepository.findActivePeriodsOverlapping(List.of(itemForBooking.getId()),
+                List.of(BookingStatus.WAITING), start.plusHours(1), start.plusDays(2).plusHours(1)).size(), equalTo(2));
+        assertThat(bookingRepository.findViewById(bookings.get(1).getId()).orElseThrow().getStart(),
+                equalTo(start.plusDays(2)));
+    }
+
+
+    @DisplayName("Последнее и следующее подтверждённое бронирование одним запросом")
+    @Test
+    void findLastAndNextApproved() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Item other = manager.persist(Item.builder().name("дрель").description("дрель").available(true)
+                .ownerId(owner.getId()).build());
+        Booking past = persistBooking(itemForBooking, now.minusDays(10), BookingStatus.APPROVED);
+        Booking last = persistBooking(itemForBooking, now.minusDays(2), BookingStatus.APPROVED);
+        persistBooking(itemForBooking, now.minusDays(1), BookingStatus.REJECTED);
+        persistBooking(itemForBooking, now.plusDays(1), BookingStatus.WAITING);
+        Booking next = persistBooking(itemForBooking, now.plusDays(2), BookingStatus.APPROVED);
+        persistBooking(itemForBooking, now.plusDays(5), BookingStatus.APPROVED);
+        Booking otherNext = persistBooking(other, now.plusDays(3), BookingStatus.APPROVED);
+        manager.flush();
+
+        List<BookingShortView> result = bookingRepository.findLastAndNextApproved(
+                List.of(itemForBooking.getId(), other.getId()), now);
+
+        assertThat(result.stream().map(BookingShortView::getId).toList(),
+                containsInAnyOrder(last.getId(), next.getId(), otherNext.getId()));
+        assertThat(result.stream().anyMatch(view -> view.getId().equals(past.getId())), equalTo(false));
+        BookingShortView nextView = result.stream().filter(view -> view.getId().equals(next.getId())).findFirst()
+                .orElseThrow();
+        assertThat(nextView.getItemId(), equalTo(itemForBooking.getId()));
+        assertThat(nextView.getBookerId(), equalTo(userBooker.getId()));
+        assertThat(nextView.getStart(), equalTo(now.plusDays(2)));
+    }
+
+    @DisplayName("Страница бронирований одним запросом без загрузки сущностей")
+    @Test
+    void pageIsProjectedInOneStatement() {
+        Item other = manager.persist(Item.builder()
+                .name("Дрель")
+                .description("Дрель ударная")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        persistBooking(other, LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
+        manager.flush();
+        manager.clear();
+        Statistics statistics = manager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingView> page = bookingRepository.findPage(ownedBy(owner.getId()), 0, 10);
+
+        assertThat(page.size(), equalTo(2));
+        assertThat(page.getFirst().getItemName(), equalTo("Дрель"));
+        assertThat(page.getFirst().getItemOwnerId(), equalTo(owner.getId()));
+        assertThat(page.getFirst().getBookerId(), equalTo(userBooker.getId()));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(manager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount(), equalTo(0));
+
+        statistics.clear();
+        Booking single = bookingRepository.findWithItemAndBookerById(booking.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(single.getItem()), equalTo(true));
+        assertThat(single.getBooker().getName(), equalTo(userBooker.getName()));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    private static List<Long> ids(List<BookingView> views) {
+        return views.stream().map(BookingView::getId).toList();
+    }
+
+    private Booking persistBooking(Item item, LocalDateTime start, BookingStatus status) {
+        return manager.persist(Booking.builder()
+                .start(start)
+                .endTime(start.plusHours(12))
+                .item(item)
+                .booker(userBooker)
+                .status(status)
+                .build());
+    }
+
 }
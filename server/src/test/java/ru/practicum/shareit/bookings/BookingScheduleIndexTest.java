@@ -0,0 +1,53 @@
+package ru.practicum.shareit.bookings;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
+import ru.practicum.shareit.booking.schedule.BookingScheduleProperties;
+import ru.practicum.shareit.booking.schedule.ItemSlotIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingScheduleIndexTest {
+
+    final BookingRepository bookingRepository = mock(BookingRepository.class);
+    final BookingScheduleProperties properties = new BookingScheduleProperties();
+    final BookingScheduleIndex index = new BookingScheduleIndex(bookingRepository,
+            new ItemSlotIndex(bookingRepository), properties);
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @Test
+    @DisplayName("Расписание вещи загружается один раз в пределах TTL")
+    void loadedOncePerTtl() {
+        index.busyBetween(1L, start, start.plusDays(1));
+        index.busyBetween(1L, start, start.plusDays(1));
+
+        verify(bookingRepository, times(1)).findByItemIdAndStatusInAndEndTimeAfter(eq(1L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Истёкшее расписание перечитывается из базы")
+    void reloadedAfterTtl() {
+        properties.setTtl(Duration.ZERO);
+        index.busyBetween(1L, start, start.plusDays(1));
+        index.busyBetween(1L, start, start.plusDays(1));
+
+        verify(bookingRepository, times(2)).findByItemIdAndStatusInAndEndTimeAfter(eq(1L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Освобождение брони не загружает расписание, которого нет в памяти")
+    void releaseSkipsUnloadedSchedule() {
+        index.releaseAfterCommit(1L, 10L);
+
+        verifyNoInteractions(bookingRepository);
+        assertFalse(index.isLoaded(1L));
+    }
+}
@@ -1,24 +1,40 @@
 package ru.practicum.shareit.bookings;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingPeriod;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
 import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
+import ru.practicum.shareit.exception.BatchValidationException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.cache.ItemVersions;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -47,6 +63,21 @@ class BookingServiceImplTest {
     @Mock
     ItemRepository itemRepository;
 
+    @Mock
+    BookingScheduleIndex scheduleIndex;
+    @Mock
+    ItemVersions itemVersions;
+    @Mock
+    Root<Booking> root;
+    @Mock
+    Path<LocalDateTime> path;
+    @Mock
+    CriteriaQuery<?> query;
+    @Mock
+    CriteriaBuilder cb;
+    @Captor
+    ArgumentCaptor<Specification<Booking>> specCaptor;
+
     final long userId = 1L;
     final long itemId = 1L;
     final long bookingId = 1L;
@@ -67,14 +98,57 @@ class BookingServiceImplTest {
     @DisplayName("Should create booking successfully")
     void testAddBookingSuccess() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
 
         BookingResponseDto result = bookingService.addBooking(userId, bookingRequestDto);
 
         assertNotNull(result);
         assertEquals(bookingRequestDto.getStart(), result.getStart());
         assertEquals(bookingRequestDto.getEnd(), result.getEnd());
+        verify(scheduleIndex).reserve(any(Booking.class));
+    }
+
+    @Test
+    @DisplayName("Should throw when item is already booked for the period")
+    void testAddBookingOverlap() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
+        when(scheduleIndex.overlaps(itemId, start, end)).thenReturn(true);
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndTimeAfter(
+                itemId, BookingScheduleIndex.ACTIVE_STATUSES, end, start)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> bookingService.addBooking(userId, bookingRequestDto));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(scheduleIndex, never()).evict(any());
+    }
+
+    @Test
+    @DisplayName("Stale overlap in the local index is checked against the database and evicted")
+    void testAddBookingStaleIndexOverlap() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
+        when(scheduleIndex.overlaps(itemId, start, end)).thenReturn(true);
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.addBooking(userId, bookingRequestDto);
+
+        verify(scheduleIndex).evict(itemId);
+        verify(bookingRepository).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    @DisplayName("Overlap missed by the local index is rejected by the database constraint")
+    void testAddBookingOverlapInDatabase() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("ex_booking_item_period"));
+
+        assertThrows(ConflictException.class, () -> bookingService.addBooking(userId, bookingRequestDto));
+        verify(bookingRepository, never()).existsByItemIdAndStatusInAndStartBeforeAndEndTimeAfter(
+                any(), any(), any(), any());
+        verify(scheduleIndex, never()).reserve(any(Booking.class));
     }
 
     @Test
@@ -89,7 +163,7 @@ class BookingServiceImplTest {
     void testAddBookingItemNotAvailable() {
         item.setAvailable(false);
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(userId, bookingRequestDto));
     }
@@ -97,37 +171,37 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("Should approve booking")
     void testApproveBooking() {
-        Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
-        booking.setId(bookingId);
-        booking.setStatus(BookingStatus.WAITING);
-
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(bookingId, owner.getId(), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(view(BookingStatus.APPROVED)));
         BookingResponseDto result = bookingService.approveBooking(owner.getId(), bookingId, true);
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
+        assertEquals(item.getName(), result.getItem().getName());
+        verify(bookingRepository, never()).findById(any());
+        verify(itemVersions).changed(itemId);
     }
 
     @Test
     @DisplayName("Should reject booking")
     void testRejectBooking() {
-        Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
-        booking.setId(bookingId);
-        booking.setStatus(BookingStatus.WAITING);
-
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(bookingId, owner.getId(), BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(view(BookingStatus.REJECTED)));
         BookingResponseDto result = bookingService.approveBooking(owner.getId(), bookingId, false);
 
         assertEquals(BookingStatus.REJECTED, result.getStatus());
+        verify(scheduleIndex).releaseAfterCommit(itemId, bookingId);
+        verifyNoInteractions(itemVersions);
     }
 
     @Test
     @DisplayName("Should throw when booking already approved")
     void testApproveBookingConflict() {
-        Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
-        booking.setId(bookingId);
-        booking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.updateStatus(bookingId, owner.getId(), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(0);
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(view(BookingStatus.APPROVED)));
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
         assertThrows(ConflictException.class, () -> bookingService.approveBooking(owner.getId(), bookingId, true));
     }
 
@@ -137,7 +211,7 @@ class BookingServiceImplTest {
         Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
         booking.setId(bookingId);
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
         BookingResponseDto result = bookingService.getBooking(userId, bookingId);
 
         assertEquals(bookingId, result.getId());
@@ -149,7 +223,7 @@ class BookingServiceImplTest {
         Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
         booking.setId(bookingId);
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
         assertThrows(NotFoundException.class, () -> bookingService.getBooking(99L, bookingId));
     }
 
@@ -160,10 +234,17 @@ class BookingServiceImplTest {
         booking.setId(bookingId);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookingRepository.findByBookerIdOrderByStartDesc(userId)).thenReturn(List.of(booking));
+        when(bookingRepository.findPage(ArgumentMatchers.<Specification<Booking>>any(), eq(0L), eq(10)))
+                .thenReturn(List.of(viewOf(booking)));
 
-        List<BookingResponseDto> result = bookingService.getUserBookings(userId, BookingState.ALL.name());
+        List<BookingResponseDto> result = bookingService.getUserBookings(userId, BookingState.ALL.name(), 0, 10, null, null);
         assertEquals(1, result.size());
+
+        applyCapturedSpec();
+        verify(root).get("booker");
+        verify(path).get("id");
+        verify(cb).equal(path, userId);
+        verify(cb).conjunction();
     }
 
     @Test
@@ -173,10 +254,17 @@ class BookingServiceImplTest {
         booking.setId(bookingId);
 
         when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(owner.getId())).thenReturn(List.of(booking));
+        when(bookingRepository.findPage(ArgumentMatchers.<Specification<Booking>>any(), eq(0L), eq(10)))
+                .thenReturn(List.of(viewOf(booking)));
 
-        List<BookingResponseDto> result = bookingService.getOwnerBookings(owner.getId(), BookingState.ALL.name());
+        List<BookingResponseDto> result = bookingService.getOwnerBookings(owner.getId(), BookingState.ALL.name(), 0, 10, null, null);
         assertEquals(1, result.size());
+
+        applyCapturedSpec();
+        verify(root).get("item");
+        verify(path).get("ownerId");
+        verify(cb).equal(path, owner.getId());
+        verify(cb).conjunction();
     }
 
     @Test
@@ -189,7 +277,7 @@ class BookingServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(userId, invalidDto));
     }
@@ -205,7 +293,7 @@ class BookingServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(userId, dto));
     }
@@ -220,7 +308,7 @@ class BookingServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(userId, dto));
     }
@@ -228,19 +316,28 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("approveBooking — не владелец вещи")
     void testApproveBooking_NotOwner() {
-        Booking booking = Booking.builder().id(bookingId).status(BookingStatus.WAITING).item(item).build();
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(bookingId, 999L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(0);
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(view(BookingStatus.WAITING)));
 
         assertThrows(ValidationException.class, () -> bookingService.approveBooking(999L, bookingId, true));
     }
 
+    @Test
+    @DisplayName("approveBooking — бронирование не найдено")
+    void testApproveBooking_NotFound() {
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.approveBooking(owner.getId(), bookingId, true));
+    }
+
     @Test
     @DisplayName("approveBooking — статус не WAITING")
     void testApproveBooking_InvalidStatus() {
-        Booking booking = Booking.builder().id(bookingId).status(BookingStatus.APPROVED).item(item).build();
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(view(BookingStatus.REJECTED)));
 
         assertThrows(ConflictException.class, () -> bookingService.approveBooking(owner.getId(), bookingId, true));
+        verify(scheduleIndex, never()).releaseAfterCommit(any(), any());
     }
 
     @DisplayName("getUserBookings — некорректный state")
@@ -248,77 +345,190 @@ class BookingServiceImplTest {
     void testGetUserBookings_InvalidState() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
-        assertThrows(IllegalArgumentException.class, () -> bookingService.getUserBookings(userId, "UNKNOWN"));
+        assertThrows(IllegalArgumentException.class, () -> bookingService.getUserBookings(userId, "UNKNOWN", 0, 10, null, null));
+    }
+
+    @DisplayName("getUserBookings — курсор задан не полностью")
+    @Test
+    void testGetUserBookings_IncompleteCursor() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.getUserBookings(userId, "ALL", 0, 10, LocalDateTime.now(), null));
     }
 
     @DisplayName("getBooking — не найдено")
     @Test
     void testGetBooking_NotFound() {
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.getBooking(userId, bookingId));
     }
 
     @Test
-    @DisplayName("getUserBookings — все состояния")
+    @DisplayName("getUserBookings — каждое состояние превращается в своё условие запроса")
     void testGetUserBookings_States() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookingRepository.findPage(ArgumentMatchers.<Specification<Booking>>any(), eq(0L), eq(10)))
+                .thenReturn(List.of());
+
         for (BookingState state : BookingState.values()) {
-            Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
-            booking.setId(bookingId);
+            bookingService.getUserBookings(userId, state.name(), 0, 10, null, null);
+            clearInvocations(root, path, cb);
+            applyCapturedSpec();
 
+            verify(cb).equal(path, userId);
             switch (state) {
+                case ALL -> verify(cb).conjunction();
                 case CURRENT -> {
-                    booking.setStart(LocalDateTime.now().minusHours(1));
-                    booking.setEndTime(LocalDateTime.now().plusHours(1));
-                    booking.setStatus(BookingStatus.APPROVED);
-                }
-                case FUTURE -> {
-                    booking.setStart(LocalDateTime.now().plusDays(1));
-                    booking.setEndTime(LocalDateTime.now().plusDays(2));
-                    booking.setStatus(BookingStatus.APPROVED);
+                    verify(root).get("start");
+                    verify(root).get("endTime");
+                    verify(cb).lessThan(eq(path), any(LocalDateTime.class));
+                    verify(cb).greaterThan(eq(path), any(LocalDateTime.class));
                 }
                 case PAST -> {
-                    booking.setStart(LocalDateTime.now().minusDays(2));
-                    booking.setEndTime(LocalDateTime.now().minusDays(1));
-                    booking.setStatus(BookingStatus.APPROVED);
-                }
-                case WAITING -> {
-                    booking.setStart(LocalDateTime.now().plusDays(1));
-                    booking.setEndTime(LocalDateTime.now().plusDays(2));
-                    booking.setStatus(BookingStatus.WAITING);
+                    verify(root).get("endTime");
+                    verify(cb).lessThan(eq(path), any(LocalDateTime.class));
                 }
-                case REJECTED -> {
-                    booking.setStart(LocalDateTime.now().plusDays(1));
-                    booking.setEndTime(LocalDateTime.now().plusDays(2));
-                    booking.setStatus(BookingStatus.REJECTED);
-                }
-                case ALL -> {
-                    booking.setStart(LocalDateTime.now().minusDays(1));
-                    booking.setEndTime(LocalDateTime.now().plusDays(1));
-                    booking.setStatus(BookingStatus.APPROVED);
+                case FUTURE -> {
+                    verify(root).get("start");
+                    verify(cb).greaterThan(eq(path), any(LocalDateTime.class));
                 }
+                case WAITING -> verify(cb).equal(path, BookingStatus.WAITING);
+                case REJECTED -> verify(cb).equal(path, BookingStatus.REJECTED);
             }
-
-            when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-            when(bookingRepository.findByBookerIdOrderByStartDesc(userId)).thenReturn(List.of(booking));
-
-            List<BookingResponseDto> result = bookingService.getUserBookings(userId, state.name());
-            assertEquals(1, result.size(), "State failed: " + state);
         }
     }
 
     @Test
     @DisplayName("Should throw ConflictException when trying to reject already rejected booking")
     void testRejectAlreadyRejectedBooking() {
-        Booking booking = BookingMapper.toBooking(bookingRequestDto, user, item);
-        booking.setId(bookingId);
-        booking.setStatus(BookingStatus.REJECTED); // Уже отклонено
-
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(view(BookingStatus.REJECTED)));
 
         assertThrows(ConflictException.class,
                 () -> bookingService.approveBooking(owner.getId(), bookingId, false));
+        verify(scheduleIndex, never()).releaseAfterCommit(any(), any());
+    }
+
+    @Test
+    @DisplayName("Пакетное подтверждение с результатом по каждому бронированию")
+    void testApproveBookingsBatch() {
+        long foreignId = 2L;
+        long decidedId = 3L;
+        long missingId = 4L;
+        when(bookingRepository.updateStatusesIfWaiting(eq(owner.getId()), anyMap())).thenReturn(new int[]{1, 0, 0, 0});
+        when(bookingRepository.findViewsByIdIn(anyCollection())).thenReturn(List.of(
+                view(BookingStatus.REJECTED),
+                new BookingView(foreignId, start, end, BookingStatus.WAITING, userId, 5L, "Other", 99L),
+                new BookingView(decidedId, start, end, BookingStatus.APPROVED, userId, itemId, item.getName(),
+                        owner.getId())));
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(owner.getId(), List.of(
+                new BookingDecisionDto(bookingId, false),
+                new BookingDecisionDto(foreignId, true),
+                new BookingDecisionDto(decidedId, true),
+                new BookingDecisionDto(missingId, true)));
+
+        assertEquals(4, results.size());
+        assertEquals(BookingStatus.REJECTED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals("Booking is already APPROVED", results.get(2).getError());
+        assertEquals("Booking not found with id: " + missingId, results.get(3).getError());
+        verify(scheduleIndex).releaseAfterCommit(itemId, bookingId);
     }
 
+    @Test
+    @DisplayName("Пакетное подтверждение с повторяющимся id")
+    void testApproveBookingsBatchDuplicate() {
+        assertThrows(ValidationException.class, () -> bookingService.approveBookings(owner.getId(), List.of(
+                new BookingDecisionDto(bookingId, true),
+                new BookingDecisionDto(bookingId, false))));
+        verify(bookingRepository, never()).updateStatusesIfWaiting(any(), any());
+    }
 
+    @Test
+    @DisplayName("Пакетное создание бронирований")
+    void testAddBookingsBatch() {
+        Item second = Item.builder().id(2L).name("Second").available(true).ownerId(owner.getId()).build();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(item, second));
+        when(bookingRepository.findActivePeriodsOverlapping(anyCollection(), eq(BookingScheduleIndex.ACTIVE_STATUSES),
+                eq(start), eq(end))).thenReturn(List.of());
+        doAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            for (int i = 0; i < bookings.size(); i++) {
+                bookings.get(i).setId(i + 10L);
+            }
+            return null;
+        }).when(bookingRepository).insertAll(anyList());
+
+        List<BookingResponseDto> result = bookingService.addBookings(userId, List.of(
+                bookingRequestDto,
+                BookingRequestDto.builder().itemId(2L).start(start).end(end).build()));
+
+        assertEquals(2, result.size());
+        assertEquals(11L, result.get(1).getId());
+        assertEquals(BookingStatus.WAITING, result.get(1).getStatus());
+        verify(scheduleIndex, times(2)).reserve(any(Booking.class));
+    }
+
+    @Test
+    @DisplayName("Пакетное создание — ошибки по строкам, ничего не сохраняется")
+    void testAddBookingsBatchLineErrors() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(item));
+
+        BatchValidationException e = assertThrows(BatchValidationException.class,
+                () -> bookingService.addBookings(userId, List.of(
+                        bookingRequestDto,
+                        BookingRequestDto.builder().itemId(99L).start(start).end(end).build(),
+                        BookingRequestDto.builder().itemId(itemId).start(end).end(start).build())));
+
+        assertEquals(List.of(1, 2), List.copyOf(e.getLineErrors().keySet()));
+        assertEquals("Item not found with id: 99", e.getLineErrors().get(1));
+        verify(bookingRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Пакетное создание — пересечение внутри пакета и с существующими")
+    void testAddBookingsBatchOverlaps() {
+        Item second = Item.builder().id(2L).name("Second").available(true).ownerId(owner.getId()).build();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(item, second));
+        BookingPeriod existing = mock(BookingPeriod.class);
+        when(existing.getItemId()).thenReturn(2L);
+        when(existing.getStart()).thenReturn(start.minusHours(1));
+        when(existing.getEnd()).thenReturn(start.plusHours(1));
+        when(bookingRepository.findActivePeriodsOverlapping(anyCollection(), eq(BookingScheduleIndex.ACTIVE_STATUSES),
+                eq(start), eq(end))).thenReturn(List.of(existing));
+
+        BatchValidationException e = assertThrows(BatchValidationException.class,
+                () -> bookingService.addBookings(userId, List.of(
+                        bookingRequestDto,
+                        BookingRequestDto.builder().itemId(itemId).start(start.plusHours(2)).end(end).build(),
+                        BookingRequestDto.builder().itemId(2L).start(start).end(end).build())));
+
+        assertEquals(List.of(1, 2), List.copyOf(e.getLineErrors().keySet()));
+        verify(bookingRepository, never()).insertAll(anyList());
+    }
+
+    private static BookingView viewOf(Booking booking) {
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEndTime(), booking.getStatus(),
+                booking.getBooker().getId(), booking.getItem().getId(), booking.getItem().getName(),
+                booking.getItem().getOwnerId());
+    }
+
+    private BookingView view(BookingStatus status) {
+        return new BookingView(bookingId, start, end, status, userId, itemId, item.getName(), owner.getId());
+    }
+
+    // прогоняет последнюю переданную в findPage спецификацию через заглушки Criteria API
+    private void applyCapturedSpec() {
+        verify(bookingRepository, atLeastOnce()).findPage(specCaptor.capture(), eq(0L), eq(10));
+        doReturn(path).when(root).get(anyString());
+        doReturn(path).when(path).get(anyString());
+        specCaptor.getValue().toPredicate(root, query, cb);
+    }
 }
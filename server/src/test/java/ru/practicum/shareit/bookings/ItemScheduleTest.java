@@ -0,0 +1,77 @@
+package ru.practicum.shareit.bookings;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.schedule.BookingInterval;
+import ru.practicum.shareit.booking.schedule.ItemSchedule;
+import ru.practicum.shareit.booking.schedule.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemScheduleTest {
+
+    final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Test
+    @DisplayName("Пересечение полуинтервалов [start, end)")
+    void overlaps() {
+        ItemSchedule schedule = new ItemSchedule();
+        schedule.add(new BookingInterval(1L, base, base.plusDays(1)));
+        schedule.add(new BookingInterval(2L, base.plusDays(3), base.plusDays(4)));
+
+        assertTrue(schedule.overlaps(base.minusHours(1), base.plusHours(1)));
+        assertTrue(schedule.overlaps(base.plusHours(1), base.plusHours(2)));
+        assertTrue(schedule.overlaps(base.plusDays(2), base.plusDays(5)));
+        assertFalse(schedule.overlaps(base.minusDays(1), base));
+        assertFalse(schedule.overlaps(base.plusDays(1), base.plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("Удаление и очистка завершившихся интервалов")
+    void removeAndPrune() {
+        ItemSchedule schedule = new ItemSchedule();
+        schedule.add(new BookingInterval(1L, base, base.plusDays(1)));
+        schedule.add(new BookingInterval(2L, base.plusDays(3), base.plusDays(4)));
+
+        schedule.remove(2L);
+        assertFalse(schedule.overlaps(base.plusDays(3), base.plusDays(4)));
+
+        schedule.pruneEndedBefore(base.plusDays(1));
+        assertEquals(0, schedule.size());
+    }
+
+    @Test
+    @DisplayName("Смежные интервалы склеиваются, свободные окна считаются в границах запроса")
+    void busyAndFree() {
+        ItemSchedule schedule = new ItemSchedule();
+        schedule.add(new BookingInterval(1L, base, base.plusDays(1)));
+        schedule.add(new BookingInterval(2L, base.plusDays(1), base.plusDays(2)));
+        schedule.add(new BookingInterval(3L, base.plusDays(5), base.plusDays(6)));
+
+        List<TimeSlot> busy = schedule.busyBetween(base.plusHours(12), base.plusDays(4));
+        assertEquals(List.of(new TimeSlot(base.plusHours(12), base.plusDays(2))), busy);
+
+        List<TimeSlot> free = ItemSchedule.gaps(busy, base.plusHours(12), base.plusDays(4));
+        assertEquals(List.of(new TimeSlot(base.plusDays(2), base.plusDays(4))), free);
+    }
+
+    @Test
+    @DisplayName("Интервалы с одинаковым началом не вытесняют друг друга")
+    void sameStart() {
+        ItemSchedule schedule = new ItemSchedule();
+        schedule.add(new BookingInterval(1L, base, base.plusDays(2)));
+        schedule.add(new BookingInterval(2L, base, base.plusDays(1)));
+
+        assertEquals(2, schedule.size());
+        assertTrue(schedule.overlaps(base.plusDays(1), base.plusDays(3)));
+        assertEquals(List.of(new TimeSlot(base, base.plusDays(2))), schedule.busyBetween(base, base.plusDays(3)));
+
+        schedule.remove(2L);
+        assertEquals(List.of(new TimeSlot(base, base.plusDays(2))), schedule.busyBetween(base, base.plusDays(3)));
+        schedule.remove(1L);
+        assertFalse(schedule.overlaps(base, base.plusDays(3)));
+    }
+}
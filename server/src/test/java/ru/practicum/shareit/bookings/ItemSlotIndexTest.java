@@ -0,0 +1,94 @@
+package ru.practicum.shareit.bookings;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingPeriod;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
+import ru.practicum.shareit.booking.schedule.ItemSlotIndex;
+import ru.practicum.shareit.booking.schedule.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSlotIndexTest {
+
+    final BookingRepository bookingRepository = mock(BookingRepository.class);
+    final ItemSlotIndex index = new ItemSlotIndex(bookingRepository);
+    final LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(2);
+
+    @Test
+    @DisplayName("Занятые часовые слоты")
+    void occupy() {
+        index.occupy(1L, base, base.plusHours(3));
+
+        assertFalse(index.isFree(1L, base.plusHours(1), base.plusHours(2)));
+        assertFalse(index.isFree(1L, base.minusHours(1), base.plusMinutes(1)));
+        assertTrue(index.isFree(1L, base.minusHours(2), base));
+        assertTrue(index.isFree(1L, base.plusHours(3), base.plusDays(1)));
+        assertTrue(index.isFree(2L, base, base.plusHours(3)));
+    }
+
+    @Test
+    @DisplayName("Неполный час занимает весь слот")
+    void partialHour() {
+        index.occupy(1L, base.plusMinutes(10), base.plusMinutes(20));
+
+        assertFalse(index.isFree(1L, base.plusMinutes(30), base.plusMinutes(40)));
+        assertTrue(index.isFree(1L, base.plusHours(1), base.plusHours(2)));
+    }
+
+    @Test
+    @DisplayName("Пересборка слотов вещи")
+    void reset() {
+        index.occupy(1L, base, base.plusHours(3));
+        index.reset(1L, List.of(new TimeSlot(base.plusHours(2), base.plusHours(3))));
+
+        assertTrue(index.isFree(1L, base, base.plusHours(2)));
+        assertFalse(index.isFree(1L, base.plusHours(2), base.plusHours(3)));
+
+        index.reset(1L, List.of());
+        assertTrue(index.isFree(1L, base, base.plusHours(3)));
+    }
+
+    @Test
+    @DisplayName("Пересборка из базы заменяет слоты и сдвигает начало отсчёта")
+    void rebuild() {
+        index.occupy(1L, base, base.plusHours(3));
+        when(bookingRepository.findActivePeriods(eq(BookingScheduleIndex.ACTIVE_STATUSES), any()))
+                .thenReturn(List.of(period(2L, base.plusHours(1), base.plusHours(2))));
+
+        index.rebuild();
+
+        assertEquals(1, index.size());
+        assertTrue(index.isFree(1L, base, base.plusHours(3)));
+        assertFalse(index.isFree(2L, base, base.plusHours(2)));
+        assertTrue(index.isFree(2L, base.plusHours(2), base.plusHours(3)));
+    }
+
+    private static BookingPeriod period(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
 import static org.mockito.Mockito.when;
@@ -25,11 +26,14 @@ public class ErrorHandlerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImportService itemImportService;
+
     @Test
     public void testHandleNotFoundException() throws Exception {
         long userId = 1L;
 
-        when(itemService.allItemsFormUser(userId))
+        when(itemService.allItemsFormUser(userId, 0, 10))
                 .thenThrow(new NotFoundException("Expected not found message"));
 
         mockMvc.perform(get("/items")
@@ -44,7 +48,7 @@ public class ErrorHandlerTest {
     public void testHandleValidationException() throws Exception {
         long userId = 1L;
 
-        when(itemService.allItemsFormUser(userId))
+        when(itemService.allItemsFormUser(userId, 0, 10))
                 .thenThrow(new ValidationException("Validation failed"));
 
         mockMvc.perform(get("/items")
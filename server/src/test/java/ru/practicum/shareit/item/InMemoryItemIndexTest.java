@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryItemIndexTest {
+
+    final ItemRepository itemRepository = mock(ItemRepository.class);
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    InMemoryItemIndex index;
+
+    final Item drill = item(1L, "Дрель", "Дрель ударная, 800 Вт", true);
+    final Item table = item(2L, "Стол", "Стол походный складной", true);
+    final Item saw = item(3L, "Пила", "Пила ручная", false);
+
+    @BeforeEach
+    void setUp() {
+        ItemSearchProperties properties = new ItemSearchProperties();
+        properties.setMode(ItemSearchMode.MEMORY);
+        index = new InMemoryItemIndex(itemRepository, properties, registry);
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(drill, table));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Поиск по префиксам всех слов запроса")
+    void searchByPrefixes() {
+        assertEquals(List.of(1L), ids(index.search("дрел", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("СТОЛ, походн", 0, 10)));
+        assertEquals(List.of(), ids(index.search("стол дрель", 0, 10)));
+        assertEquals(List.of(), ids(index.search("  ", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Совпадения в названии выше совпадений в описании, постранично")
+    void rankingAndPaging() {
+        index.put(item(4L, "Рюкзак", "Рюкзак походный, подойдёт под стол", true));
+        index.put(item(5L, "Стол", "Стол раскладной", true));
+
+        assertEquals(List.of(2L, 5L, 4L), ids(index.search("стол", 0, 10)));
+        assertEquals(List.of(5L), ids(index.search("стол", 1, 1)));
+        assertEquals(List.of(4L), ids(index.search("стол", 2, 5)));
+        assertEquals(List.of(), ids(index.search("стол", 3, 5)));
+    }
+
+    @Test
+    @DisplayName("Фильтр применяется до пагинации")
+    void filterBeforePaging() {
+        index.put(item(4L, "Рюкзак", "Рюкзак походный, подойдёт под стол", true));
+        index.put(item(5L, "Стол", "Стол раскладной", true));
+
+        assertEquals(List.of(4L), ids(index.search("стол", 1, 5, id -> id != 2L)));
+        assertEquals(List.of(5L), ids(index.search("стол", 0, 1, id -> id != 2L)));
+    }
+
+    @Test
+    @DisplayName("Добавление, изменение и удаление вещей")
+    void incrementalUpdates() {
+        Item chair = item(4L, "Стул", "Стул походный", true);
+        index.put(chair);
+        index.put(saw);
+        assertEquals(List.of(2L, 4L), ids(index.search("походный", 0, 10)));
+        assertEquals(List.of(), ids(index.search("пила", 0, 10)));
+
+        index.put(item(2L, "Стол", "Стол кухонный", true));
+        assertEquals(List.of(4L), ids(index.search("походный", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("кухон", 0, 10)));
+
+        index.remove(4L);
+        assertEquals(List.of(), ids(index.search("походный", 0, 10)));
+        index.put(item(1L, "Дрель", "Дрель ударная", false));
+        assertEquals(List.of(), ids(index.search("дрель", 0, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Порция вещей добавляется одним слиянием списков")
+    void bulkPut() {
+        index.putAll(List.of(
+                item(5L, "Стол", "Стол раскладной", true),
+                item(4L, "Рюкзак", "Рюкзак походный", true),
+                item(2L, "Стол", "Стол кухонный", true),
+                item(6L, "Пила", "Пила", false)));
+
+        assertEquals(List.of(2L, 5L), ids(index.search("стол", 0, 10)));
+        assertEquals(List.of(4L), ids(index.search("походный", 0, 10)));
+        assertEquals(List.of(), ids(index.search("пила", 0, 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Метрики размера индекса")
+    void metrics() {
+        assertEquals(2.0, registry.get("shareit.search.index.items").gauge().value());
+        assertTrue(registry.get("shareit.search.index.memory").gauge().value() > 0);
+        assertTrue(registry.get("shareit.search.index.memory.per.item").gauge().value() > 0);
+        assertNotNull(registry.get("shareit.search.index.rebuild.time").gauge());
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).ownerId(1L).build();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+}
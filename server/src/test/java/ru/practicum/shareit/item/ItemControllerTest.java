@@ -15,16 +15,20 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +43,9 @@ public class ItemControllerTest {
     @MockBean
     ItemService itemService;
 
+    @MockBean
+    ItemImportService itemImportService;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -104,29 +111,47 @@ public class ItemControllerTest {
 
     }
 
+    @DisplayName("Карточка вещи с ETag и ответ 304 на If-None-Match")
+    @Test
+    void getItemByIdNotModifiedTest() throws Exception {
+        String etag = "\"run-3-2-0\"";
+        when(itemService.getItemEtag(3L)).thenReturn(null, etag, etag);
+        when(itemService.getItemWithComments(3L)).thenReturn(itemDtoBooking);
+
+        mockMvc.perform(get("/items/3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+
+        mockMvc.perform(get("/items/3")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(itemService, times(1)).getItemWithComments(3L);
+    }
+
     @DisplayName("Получение всех вещей пользователя")
     @Test
     void getUserItemsTest() throws Exception {
-        items = List.of(itemDto, itemDto2);
-        when(itemService.allItemsFormUser(any(Long.class))).thenReturn(items);
+        itemDtoBooking.setComments(List.of(comment));
+        when(itemService.allItemsFormUser(1L, 0, 10)).thenReturn(List.of(itemDtoBooking));
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", 1L)
-                        .content(mapper.writeValueAsString(items))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
-                .andExpect(jsonPath("$[1].id", is(itemDto2.getId()), Long.class));
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id", is(itemDtoBooking.getId()), Long.class))
+                .andExpect(jsonPath("$[0].comments[0].text", is(comment.getText())));
     }
 
     @DisplayName("Поиск вещи по запросу")
     @Test
     void searchItemTest() throws Exception {
         items = List.of(itemDto);
-        when(itemService.searchItems(any(String.class))).thenReturn(items);
+        when(itemService.searchItems(any(String.class), isNull(), isNull(), eq(0), eq(10))).thenReturn(items);
 
         mockMvc.perform(get("/items/search")
                         .content(mapper.writeValueAsString(items))
@@ -139,6 +164,61 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
     }
 
+    @DisplayName("Подсказки названий по префиксу")
+    @Test
+    void suggestNamesTest() throws Exception {
+        when(itemService.suggestNames("ст", 10)).thenReturn(List.of("Стол", "Стул"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "ст")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1]", is("Стул")));
+    }
+
+    @DisplayName("Импорт вещей из NDJSON")
+    @Test
+    void importItemsTest() throws Exception {
+        ItemImportResultDto result = ItemImportResultDto.builder()
+                .imported(1)
+                .failed(1)
+                .errors(Map.of(2L, "Name must be not empty!"))
+                .build();
+        when(itemImportService.importItems(eq(1L), startsWith("application/x-ndjson"), any())).thenReturn(result);
+
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Стол\",\"description\":\"Стол\",\"available\":true}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors['2']", is("Name must be not empty!")));
+    }
+
+    @DisplayName("Календарь занятости вещи")
+    @Test
+    void getAvailabilityTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0, 30);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 5, 10, 0, 30);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(to)
+                .busy(List.of(new TimeSlotDto(from.plusDays(1), from.plusDays(2))))
+                .free(List.of(new TimeSlotDto(from, from.plusDays(1)), new TimeSlotDto(from.plusDays(2), to)))
+                .build();
+        when(itemService.getAvailability(1L, from, to)).thenReturn(availability);
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.busy.length()").value(1))
+                .andExpect(jsonPath("$.free.length()").value(2))
+                .andExpect(jsonPath("$.free[1].end", is(to.toString())));
+    }
 
     @DisplayName("Обновление вещи")
     @Test
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemCacheProperties;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.cache.ItemVersions;
+import ru.practicum.shareit.item.dto.ItemDtoBooking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemDetailsCacheTest {
+
+    final ItemVersions versions = new ItemVersions(new ItemCacheProperties());
+    final ItemCacheProperties properties = new ItemCacheProperties();
+    final AtomicInteger loads = new AtomicInteger();
+    ItemDetailsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemDetailsCache(properties, versions, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Повторное чтение из кэша до изменения вещи")
+    void readThroughAndInvalidate() {
+        assertEquals("v1", cache.get(1L, () -> load(1L, "v1", null)).getName());
+        assertEquals("v1", cache.get(1L, () -> load(1L, "v2", null)).getName());
+        assertEquals(1, loads.get());
+
+        versions.changed(1L);
+        assertEquals("v2", cache.get(1L, () -> load(1L, "v2", null)).getName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Запись устаревает с началом следующей брони и вытесняется по размеру")
+    void expiresAndEvicts() {
+        cache.get(1L, () -> load(1L, "v1", LocalDateTime.now().minusSeconds(1)));
+        cache.get(1L, () -> load(1L, "v1", null));
+        assertEquals(2, loads.get());
+
+        properties.setMaxSize(1);
+        cache.get(2L, () -> load(2L, "v1", null));
+        assertEquals(1, cache.size());
+        cache.get(1L, () -> load(1L, "v1", null));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("Запись истекает по TTL, даже если версия вещи не менялась")
+    void expiresByTtl() {
+        properties.setTtl(Duration.ZERO);
+        cache.get(1L, () -> load(1L, "v1", null));
+        assertEquals("v2", cache.get(1L, () -> load(1L, "v2", null)).getName());
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Одновременные промахи ждут одну загрузку")
+    void singleFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ItemDtoBooking> first = executor.submit(() -> cache.get(1L, () -> {
+                started.countDown();
+                await(release);
+                return load(1L, "v1", null);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ItemDtoBooking> second = executor.submit(() -> cache.get(1L, () -> load(1L, "other", null)));
+            Future<ItemDtoBooking> third = executor.submit(() -> cache.get(1L, () -> load(1L, "other", null)));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("v1", first.get(5, TimeUnit.SECONDS).getName());
+            assertEquals("v1", second.get(5, TimeUnit.SECONDS).getName());
+            assertEquals("v1", third.get(5, TimeUnit.SECONDS).getName());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки не кэшируется")
+    void failedLoadNotCached() {
+        assertThrows(NotFoundException.class, () -> cache.get(1L, () -> {
+            throw new NotFoundException("Item not found");
+        }));
+        assertEquals("v1", cache.get(1L, () -> load(1L, "v1", null)).getName());
+    }
+
+    private ItemDtoBooking load(long itemId, String name, LocalDateTime validUntil) {
+        loads.incrementAndGet();
+        versions.built(itemId, versions.current(itemId), validUntil);
+        return ItemDtoBooking.builder().id(itemId).name(name).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
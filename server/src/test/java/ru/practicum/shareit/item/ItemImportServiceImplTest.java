@@ -0,0 +1,186 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.service.impl.ItemImportServiceImpl;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemImportServiceImplTest {
+
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    InMemoryItemIndex itemIndex;
+    @Mock
+    ItemNameSuggester nameSuggester;
+    @Mock
+    ItemSearchCache searchCache;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ItemImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ItemImportServiceImpl(itemRepository, userRepository, itemRequestRepository, itemIndex,
+                nameSuggester, searchCache, new TransactionTemplate(transactionManager),
+                Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Test
+    @DisplayName("Импорт NDJSON с отчётом об ошибках по строкам")
+    void importNdjson() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(itemRequestRepository.findAllById(List.of(7L, 8L)))
+                .thenReturn(List.of(ItemRequest.builder().id(7L).build()));
+        String body = """
+                {"name":"Дрель","description":"Дрель ударная","available":true}
+                {"name":"","description":"Пустое имя","available":true}
+
+                {"name":"Стол","description":"Стол походный","available":false,"requestId":7}
+                не json
+                {"name":"Пила","description":"Пила ручная","available":true,"requestId":8}
+                """;
+
+        ItemImportResultDto result = importService.importItems(1L, "application/x-ndjson", stream(body));
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 5L, 6L), List.copyOf(result.getErrors().keySet()));
+        assertEquals("Name must be not empty!", result.getErrors().get(2L));
+        assertTrue(result.getErrors().get(5L).startsWith("Malformed JSON"));
+        assertEquals("Request not found", result.getErrors().get(6L));
+        assertFalse(result.isErrorsTruncated());
+        verify(itemRepository).saveAll(argThat((List<Item> items) -> items.size() == 2
+                && items.get(0).getOwnerId() == 1L
+                && items.get(1).getRequest().getId() == 7L));
+        verify(itemIndex).putAll(argThat(items -> items.size() == 2));
+        verify(nameSuggester).putAll(argThat(items -> items.size() == 2));
+        verify(itemIndex, never()).put(any(Item.class));
+        verify(searchCache).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Импорт CSV с кавычками и порциями записи")
+    void importCsvInChunks() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        String rows = IntStream.rangeClosed(1, 600)
+                .mapToObj(i -> "\"Стол, складной\",\"Стол \"\"" + i + "\"\"\"," + (i != 600))
+                .collect(Collectors.joining("\n"));
+        String body = "name,description,available\n" + rows + "\nСтул,Стул,maybe\n";
+
+        ItemImportResultDto result = importService.importItems(1L, "text/csv; charset=UTF-8", stream(body));
+
+        assertEquals(600, result.getImported());
+        assertEquals(Map.of(602L, "available must be true or false"), result.getErrors());
+        verify(itemRepository, times(2)).saveAll(anyList());
+        verify(itemRepository).saveAll(argThat((List<Item> items) -> items.size() == 500
+                && items.get(0).getName().equals("Стол, складной")
+                && items.get(0).getDescription().equals("Стол \"1\"")));
+        verify(transactionManager, times(2)).commit(any());
+        verify(nameSuggester, times(2)).putAll(anyCollection());
+        verifyNoInteractions(itemRequestRepository);
+    }
+
+    @Test
+    @DisplayName("Слишком длинные поля и отказ базы попадают в отчёт, импорт продолжается")
+    void oversizedAndRejectedLines() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            if (items.stream().anyMatch(item -> item.getName().equals("Сломанная"))) {
+                throw new DataIntegrityViolationException("constraint");
+            }
+            return items;
+        });
+        String body = "name,description,available\n"
+                + "Дрель,Дрель ударная,true\n"
+                + "x".repeat(256) + ",Длинное имя,true\n"
+                + "Стол," + "x".repeat(513) + ",true\n"
+                + "Сломанная,Отвергнута базой,true\n"
+                + "Пила,Пила ручная,true\n";
+
+        ItemImportResultDto result = importService.importItems(1L, "text/csv", stream(body));
+
+        assertEquals(2, result.getImported());
+        assertEquals(Map.of(
+                3L, "Name must be at most 255 characters",
+                4L, "Description must be at most 512 characters",
+                5L, "Rejected by the database"), result.getErrors());
+        verify(itemRepository, times(4)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("В отчёт попадает ограниченное число ошибок")
+    void errorsTruncated() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        String body = "{}\n".repeat(1001);
+
+        ItemImportResultDto result = importService.importItems(1L, "application/x-ndjson", stream(body));
+
+        assertEquals(0, result.getImported());
+        assertEquals(1001, result.getFailed());
+        assertEquals(1000, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    @DisplayName("Импорт для несуществующего пользователя и в неизвестном формате")
+    void importRejected() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(NotFoundException.class,
+                () -> importService.importItems(99L, "application/x-ndjson", stream("{}")));
+        assertThrows(ValidationException.class,
+                () -> importService.importItems(1L, "application/json", stream("{}")));
+        assertThrows(ValidationException.class,
+                () -> importService.importItems(1L, "text/csv", stream("name,price\n")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemNameSuggesterTest {
+
+    final ItemRepository itemRepository = mock(ItemRepository.class);
+    ItemNameSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new ItemNameSuggester(itemRepository);
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Дрель ударная", true),
+                item(2L, "дрель", true),
+                item(3L, "Дрель", true),
+                item(4L, "Стол", true),
+                item(5L, "Доска", true)));
+        suggester.rebuild();
+    }
+
+    @Test
+    @DisplayName("Подсказки по префиксу без учёта регистра и без повторов")
+    void suggestByPrefix() {
+        assertEquals(List.of("дрель", "Дрель ударная"), suggester.suggest("ДР", 10));
+        assertEquals(List.of("Доска", "дрель"), suggester.suggest(" д", 2));
+        assertEquals(List.of(), suggester.suggest("пила", 10));
+        assertEquals(List.of(), suggester.suggest("  ", 10));
+    }
+
+    @Test
+    @DisplayName("Добавление, изменение и удаление вещей")
+    void incrementalUpdates() {
+        suggester.put(item(6L, "Пила", true));
+        suggester.put(item(7L, "Пилон", false));
+        assertEquals(List.of("Пила"), suggester.suggest("пил", 10));
+
+        suggester.put(item(4L, "Стул", true));
+        assertEquals(List.of("Стул"), suggester.suggest("ст", 10));
+
+        suggester.put(item(1L, "Дрель ударная", false));
+        suggester.remove(2L);
+        assertEquals(List.of("Дрель"), suggester.suggest("дрель", 10));
+        assertEquals(4, suggester.size());
+    }
+
+    @Test
+    @DisplayName("Порция вещей вливается одним проходом")
+    void bulkPut() {
+        suggester.putAll(List.of(
+                item(6L, "Пила", true),
+                item(4L, "Стул", true),
+                item(7L, "Дрель аккумуляторная", true),
+                item(5L, "Доска", false)));
+
+        assertEquals(List.of("дрель", "Дрель аккумуляторная", "Дрель ударная"), suggester.suggest("дрел", 10));
+        assertEquals(List.of("Стул"), suggester.suggest("ст", 10));
+        assertEquals(List.of(), suggester.suggest("доск", 10));
+        assertEquals(6, suggester.size());
+    }
+
+    private static Item item(Long id, String name, boolean available) {
+        return Item.builder().id(id).name(name).description(name).available(available).build();
+    }
+}
@@ -4,6 +4,7 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +14,12 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -33,6 +38,7 @@ import static org.hamcrest.Matchers.notNullValue;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ItemRepositoryTest {
     final ItemRepository itemRepository;
+    final CommentRepository commentRepository;
     final TestEntityManager manager;
     User user;
     Item item;
@@ -96,12 +102,64 @@ public class ItemRepositoryTest {
     @DisplayName("Поиск вещи по имени и описанию")
     @Test
     void searchItemByText() {
-        List<Item> searchItem = itemRepository.search("стол");
+        List<Item> searchItem = itemRepository.search("стол", 10, 0);
 
         assertThat(searchItem.size(), equalTo(1));
         assertThat(searchItem.getFirst(), equalTo(item3));
     }
 
+    @DisplayName("Совпадения в названии выше совпадений в описании, постранично")
+    @Test
+    void searchRankedByNameWithPaging() {
+        Item backpack = manager.persistFlushFind(Item.builder()
+                .name("Рюкзак")
+                .description("Рюкзак, в комплекте складной стол")
+                .ownerId(user2.getId())
+                .available(true)
+                .build());
+        Item table = manager.persistFlushFind(Item.builder()
+                .name("Стол письменный")
+                .description("Деревянный")
+                .ownerId(user.getId())
+                .available(true)
+                .build());
+
+        assertThat(itemRepository.search("стол", 10, 0), equalTo(List.of(item3, table, backpack)));
+        assertThat(itemRepository.search("стол", 1, 1), equalTo(List.of(table)));
+        assertThat(itemRepository.search("стол", 10, 2), equalTo(List.of(backpack)));
+    }
+
+    @Test
+    @DisplayName("Поиск свободных вещей исключает активные брони, пересекающие период, до пагинации")
+    void searchFreeSkipsBookedItems() {
+        Item table = manager.persistFlushFind(Item.builder()
+                .name("Стол письменный")
+                .description("Деревянный")
+                .ownerId(user.getId())
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusDays(1);
+        manager.persist(Booking.builder()
+                .start(start.minusHours(1))
+                .endTime(start.plusHours(1))
+                .item(item3)
+                .booker(user2)
+                .status(BookingStatus.WAITING)
+                .build());
+        manager.persist(Booking.builder()
+                .start(start)
+                .endTime(end)
+                .item(table)
+                .booker(user2)
+                .status(BookingStatus.REJECTED)
+                .build());
+        manager.flush();
+
+        assertThat(itemRepository.searchFree("стол", start, end, 1, 0), equalTo(List.of(table)));
+        assertThat(itemRepository.searchFree("стол", end, end.plusDays(1), 10, 0), equalTo(List.of(item3, table)));
+    }
+
     @Test
     @DisplayName("Добавление комментария")
     void addComment() {
@@ -148,4 +206,58 @@ public class ItemRepositoryTest {
                 equalTo(comment.getCreated().truncatedTo(ChronoUnit.SECONDS)));
     }
 
+    @Test
+    @DisplayName("Страница вещей владельца начинается ровно с from, даже если оно не кратно size")
+    void ownerItemsPageWithUnalignedOffset() {
+        Item item4 = manager.persistFlushFind(Item.builder()
+                .name("Стул")
+                .description("Стул походный")
+                .ownerId(user.getId())
+                .available(true)
+                .build());
+
+        List<ItemDto> page = itemRepository.findDtosByOwnerId(user.getId(), 2, 1);
+
+        assertThat(page, equalTo(List.of(ItemMapper.toItemDto(item2), ItemMapper.toItemDto(item4))));
+    }
+
+    @Test
+    @DisplayName("Страница вещей владельца и комментарии к ним одним запросом")
+    void ownerItemsPageWithComments() {
+        Booking booking = manager.persist(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .endTime(LocalDateTime.now().minusDays(1))
+                .item(item2)
+                .booker(user2)
+                .status(BookingStatus.APPROVED)
+                .build());
+        manager.persist(Comment.builder()
+                .item(item2)
+                .author(user2)
+                .description("Отличный фотоаппарат")
+                .created(LocalDateTime.now())
+                .booking(booking)
+                .build());
+        manager.flush();
+
+        manager.clear();
+
+        List<ItemDto> firstPage = itemRepository.findDtosByOwnerId(user.getId(), 1, 0);
+        List<ItemDto> secondPage = itemRepository.findDtosByOwnerId(user.getId(), 1, 1);
+        List<CommentView> comments = commentRepository.findViewsByItemIdIn(List.of(item.getId(), item2.getId()));
+
+        assertThat(firstPage, equalTo(List.of(ItemMapper.toItemDto(item))));
+        assertThat(secondPage, equalTo(List.of(ItemMapper.toItemDto(item2))));
+        assertThat(comments.size(), equalTo(1));
+        assertThat(comments.getFirst().getItemId(), equalTo(item2.getId()));
+        assertThat(comments.getFirst().getAuthorName(), equalTo(user2.getName()));
+        assertThat(comments.getFirst().getText(), equalTo("Отличный фотоаппарат"));
+
+        List<Comment> authorComments = commentRepository.findByAuthorIdOrderByCreated(user2.getId());
+        assertThat(authorComments.size(), equalTo(1));
+        assertThat(Hibernate.isInitialized(authorComments.getFirst().getAuthor()), equalTo(true));
+        assertThat(Hibernate.isInitialized(authorComments.getFirst().getBooking()), equalTo(false));
+        assertThat(commentRepository.findItemIdsByAuthorId(user2.getId()), equalTo(List.of(item2.getId())));
+    }
+
 }
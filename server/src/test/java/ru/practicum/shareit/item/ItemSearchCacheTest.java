@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.schedule.ItemSlotIndex;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSearcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchCacheTest {
+
+    final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ItemSearchProperties properties;
+    ItemSearchCache cache;
+
+    final Item table = item(1L, "Стол", "Стол походный", true);
+    final Item drill = item(2L, "Дрель", "Дрель ударная", true);
+
+    @BeforeEach
+    void setUp() {
+        properties = new ItemSearchProperties();
+        properties.setMode(ItemSearchMode.LIKE);
+        ItemSearcher searcher = new ItemSearcher(mock(ItemRepository.class), properties,
+                mock(InMemoryItemIndex.class), mock(ItemSlotIndex.class), jdbcTemplate);
+        cache = new ItemSearchCache(properties, searcher, registry);
+        cache.put("стол", 0, 10, List.of(dto(1L)), cache.version());
+        cache.put("дрель", 0, 10, List.of(dto(2L)), cache.version());
+    }
+
+    @Test
+    @DisplayName("Попадания и промахи считаются в метриках")
+    void hitsAndMisses() {
+        assertEquals(List.of(dto(1L)), cache.get(" СТОЛ ", 0, 10));
+        assertNull(cache.get("стол", 10, 10));
+
+        assertEquals(1.0, registry.get("shareit.search.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(0.5, registry.get("shareit.search.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Вытеснение давно не использованных запросов и по TTL")
+    void evictsBySizeAndTtl() {
+        properties.getCache().setMaxSize(2);
+        cache.get("стол", 0, 10);
+        cache.put("пила", 0, 10, List.of(), cache.version());
+
+        assertNull(cache.get("дрель", 0, 10));
+        assertEquals(List.of(dto(1L)), cache.get("стол", 0, 10));
+        assertEquals(1.0, registry.get("shareit.search.cache.evictions").tag("cause", "size").counter().count());
+
+        properties.getCache().setTtl(Duration.ZERO);
+        cache.put("стол", 0, 10, List.of(dto(1L)), cache.version());
+        assertNull(cache.get("стол", 0, 10));
+        assertEquals(1.0, registry.get("shareit.search.cache.evictions").tag("cause", "expired").counter().count());
+    }
+
+    @Test
+    @DisplayName("Изменение вещи сбрасывает только запросы, которым она могла соответствовать")
+    void preciseInvalidation() {
+        cache.itemChanged(null, item(3L, "Стол письменный", "Деревянный", true));
+        assertNull(cache.get("стол", 0, 10));
+        assertEquals(List.of(dto(2L)), cache.get("дрель", 0, 10));
+
+        cache.put("стол", 0, 10, List.of(dto(1L)), cache.version());
+        cache.itemChanged(drill, item(2L, "Дрель", "Дрель ударная", false));
+        assertNull(cache.get("дрель", 0, 10));
+        assertEquals(List.of(dto(1L)), cache.get("стол", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Результат, посчитанный до изменения, в кэш не попадает")
+    void stalePutIgnored() {
+        long version = cache.version();
+        cache.itemChanged(table, item(1L, "Стол", "Стол кухонный", true));
+        cache.put("стол", 0, 10, List.of(dto(1L)), version);
+
+        assertNull(cache.get("стол", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Удаление и неточные режимы поиска сбрасывают весь кэш")
+    void wholesaleInvalidation() {
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+
+        properties.setMode(ItemSearchMode.TRIGRAM);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        cache = new ItemSearchCache(properties, new ItemSearcher(mock(ItemRepository.class), properties,
+                mock(InMemoryItemIndex.class), mock(ItemSlotIndex.class), jdbcTemplate), new SimpleMeterRegistry());
+        cache.put("стол", 0, 10, List.of(dto(1L)), cache.version());
+        cache.itemChanged(null, item(3L, "Пила", "Пила ручная", true));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Чтения из нескольких потоков не мешают друг другу и вытеснению")
+    void concurrentReads() throws Exception {
+        properties.getCache().setMaxSize(50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        String query = "q" + (thread * 1000 + i) % 80;
+                        if (cache.get(query, 0, 10) == null) {
+                            cache.put(query, 0, 10, List.of(dto(i)), cache.version());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.size() <= 50 + 8);
+    }
+
+    private static ItemDto dto(long id) {
+        return ItemDto.builder().id(id).build();
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.schedule.ItemSlotIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSearcher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemSearcherTest {
+
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    InMemoryItemIndex itemIndex;
+    @Mock
+    ItemSlotIndex slotIndex;
+
+    ItemSearchProperties properties;
+    ItemSearcher searcher;
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    final LocalDateTime end = start.plusDays(1);
+    final Item item = Item.builder().id(1L).name("Дрель").description("Дрель ударная").available(true).build();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ItemSearchProperties();
+        searcher = new ItemSearcher(itemRepository, properties, itemIndex, slotIndex, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Полнотекстовый поиск на PostgreSQL")
+    void fullTextOnPostgres() {
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        when(itemRepository.searchFullText("Дрели", 10, 0L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.search("Дрели", 0, 10));
+        searcher.search("Дрели", 0, 10);
+        verify(jdbcTemplate, times(1)).execute(ArgumentMatchers.<ConnectionCallback<String>>any());
+        verify(itemRepository, never()).search(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Откат на LIKE, если база не PostgreSQL")
+    void fallbackToLike() {
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("H2");
+        when(itemRepository.search("дрель", 10, 0L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.search("Дрель", 0, 10));
+        verify(itemRepository, never()).searchFullText(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Триграммный поиск с опечаткой")
+    void trigramOnPostgres() {
+        properties.setMode(ItemSearchMode.TRIGRAM);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        when(itemRepository.searchTrigram("дрел", 10, 0L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.search("Дрел", 0, 10));
+        verify(itemRepository, never()).searchFullText(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Триграммный режим на H2 откатывается на LIKE")
+    void trigramFallbackToLike() {
+        properties.setMode(ItemSearchMode.TRIGRAM);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("H2");
+        when(itemRepository.search("дрел", 10, 0L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.search("Дрел", 0, 10));
+        verify(itemRepository, never()).searchTrigram(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Поиск по индексу в памяти без обращения к базе")
+    void memoryMode() {
+        properties.setMode(ItemSearchMode.MEMORY);
+        when(itemIndex.search("Дрель", 0L, 10)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.search("Дрель", 0, 10));
+        verifyNoInteractions(itemRepository, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Режим LIKE из настроек")
+    void likeMode() {
+        properties.setMode(ItemSearchMode.LIKE);
+        when(itemRepository.search("дрель", 10, 0L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.search("ДРЕЛЬ", 0, 10));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Свободные в период вещи отбираются в том же запросе к базе")
+    void searchFreeInDatabase() {
+        properties.setMode(ItemSearchMode.LIKE);
+        when(itemRepository.searchFree("дрель", start, end, 10, 20L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), searcher.searchFree("Дрель", start, end, 20, 10));
+        verifyNoInteractions(slotIndex);
+    }
+
+    @Test
+    @DisplayName("В режиме памяти период проверяется по часовым слотам до пагинации")
+    void searchFreeInMemory() {
+        properties.setMode(ItemSearchMode.MEMORY);
+        when(itemIndex.search(eq("Дрель"), eq(0L), eq(10), any())).thenAnswer(invocation -> {
+            LongPredicate filter = invocation.getArgument(3);
+            return filter.test(item.getId()) ? List.of(item) : List.of();
+        });
+        when(slotIndex.isFree(item.getId(), start, end)).thenReturn(false);
+
+        assertEquals(List.of(), searcher.searchFree("Дрель", start, end, 0, 10));
+        verifyNoInteractions(itemRepository);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,19 +9,34 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingScheduleIndex;
+import ru.practicum.shareit.booking.schedule.TimeSlot;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.cache.ItemVersions;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemIndex;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchMetrics;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSearcher;
 import ru.practicum.shareit.item.service.impl.ItemServiceImpl;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -51,6 +67,23 @@ class ItemServiceImplTest {
     CommentRepository commentRepository;
     @Mock
     ItemRequestRepository itemRequestRepository;
+    @Mock
+    BookingScheduleIndex scheduleIndex;
+    @Mock
+    ItemSearcher itemSearcher;
+    @Mock
+    InMemoryItemIndex itemIndex;
+    @Mock
+    ItemSearchCache searchCache;
+    @Mock
+    ItemNameSuggester nameSuggester;
+    @Mock
+    ItemVersions itemVersions;
+    @Mock
+    ItemDetailsCache itemDetailsCache;
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    @Spy
+    ItemSearchMetrics searchMetrics = new ItemSearchMetrics(new ItemSearchProperties(), registry);
 
     final long userId = 1L;
     final long itemId = 1L;
@@ -112,29 +145,120 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Поиск с пустым текстом")
     void testSearchItems_EmptyText() {
-        List<ItemDto> result = itemService.searchItems("   ");
+        List<ItemDto> result = itemService.searchItems("   ", null, null, 0, 10);
         assertTrue(result.isEmpty());
-        verify(itemRepository, never()).search(any());
+        verify(itemSearcher, never()).search(any(), anyInt(), anyInt());
     }
 
     @Test
     @DisplayName("Поиск с текстом")
     void testSearchItems() {
-        when(itemRepository.search("test")).thenReturn(List.of(item));
-        List<ItemDto> result = itemService.searchItems("test");
+        when(itemSearcher.search("test", 0, 10)).thenReturn(List.of(item));
+        List<ItemDto> result = itemService.searchItems("test", null, null, 0, 10);
         assertEquals(1, result.size());
         assertEquals(item.getName(), result.get(0).getName());
+        for (String phase : List.of("normalize", "query", "map")) {
+            assertEquals(1, registry.get("shareit.search.phase").tag("phase", phase).timer().count());
+        }
+        verify(itemRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Повторный поиск отдаётся из кэша без обращения к базе")
+    void testSearchItemsFromCache() {
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(searchCache.get("походный стол", 0, 10)).thenReturn(List.of(ItemMapper.toItemDto(item)));
+
+        List<ItemDto> result = itemService.searchItems("  Походный   СТОЛ ", null, null, 0, 10);
+
+        assertEquals(List.of(itemId), result.stream().map(ItemDto::getId).toList());
+        verify(itemSearcher, never()).search(any(), anyInt(), anyInt());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    @DisplayName("Промах кэша сохраняет найденные вещи с версией до запроса")
+    void testSearchItemsCacheMiss() {
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(searchCache.get("test", 0, 10)).thenReturn(null);
+        when(searchCache.version()).thenReturn(7L);
+        when(itemSearcher.search("test", 0, 10)).thenReturn(List.of(item));
+
+        itemService.searchItems("Test", null, null, 0, 10);
+
+        verify(searchCache).put("test", 0, 10, List.of(ItemMapper.toItemDto(item)), 7L);
+    }
+
+    @Test
+    @DisplayName("Карточка вещи берётся из кэша")
+    void testGetItemFromCache() {
+        ItemDtoBooking cached = ItemDtoBooking.builder().id(itemId).name("Item").build();
+        when(itemDetailsCache.isEnabled()).thenReturn(true);
+        when(itemDetailsCache.get(eq(itemId), any())).thenReturn(cached);
+
+        assertSame(cached, itemService.getItemWithComments(itemId));
+        verifyNoInteractions(itemRepository, bookingRepository, commentRepository);
+    }
+
+    @Test
+    @DisplayName("Подсказки названий с некорректным размером")
+    void testSuggestNamesInvalidSize() {
+        assertThrows(ValidationException.class, () -> itemService.suggestNames("др", 0));
+        assertThrows(ValidationException.class, () -> itemService.suggestNames("др", 51));
+        verifyNoInteractions(nameSuggester);
+    }
+
+    @Test
+    @DisplayName("Поиск свободных в заданный период вещей")
+    void testSearchItemsAvailableBetween() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        when(itemSearcher.searchFree("test", start, end, 0, 10)).thenReturn(List.of(item));
+
+        List<ItemDto> result = itemService.searchItems("test", start, end, 0, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(itemId, result.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Поиск с некорректной пагинацией")
+    void testSearchItemsInvalidPage() {
+        assertThrows(ValidationException.class, () -> itemService.searchItems("test", null, null, -1, 10));
+        assertThrows(ValidationException.class, () -> itemService.searchItems("test", null, null, 0, 0));
+        verify(itemSearcher, never()).search(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Поиск с неполным периодом")
+    void testSearchItemsIncompletePeriod() {
+        assertThrows(ValidationException.class,
+                () -> itemService.searchItems("test", LocalDateTime.now(), null, 0, 10));
+        verify(itemSearcher, never()).search(any(), anyInt(), anyInt());
     }
 
     @Test
     @DisplayName("Получение вещи с комментариями")
     void testGetItemWithComments() {
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItem_idAndStatus(itemId, BookingStatus.WAITING)).thenReturn(List.of());
-        when(commentRepository.findByItem_id(itemId)).thenReturn(List.of());
+        BookingShortView last = mock(BookingShortView.class);
+        when(last.getId()).thenReturn(10L);
+        when(last.getItemId()).thenReturn(itemId);
+        when(last.getBookerId()).thenReturn(bookerId);
+        when(last.getStart()).thenReturn(LocalDateTime.now().minusDays(1));
+        BookingShortView next = mock(BookingShortView.class);
+        when(next.getId()).thenReturn(11L);
+        when(next.getItemId()).thenReturn(itemId);
+        when(next.getBookerId()).thenReturn(bookerId);
+        when(next.getStart()).thenReturn(LocalDateTime.now().plusDays(1));
+        when(bookingRepository.findLastAndNextApproved(eq(List.of(itemId)), any(LocalDateTime.class)))
+                .thenReturn(List.of(next, last));
+        when(commentRepository.findViewsByItemIdIn(List.of(itemId))).thenReturn(List.of());
 
         ItemDtoBooking result = itemService.getItemWithComments(itemId);
         assertEquals(item.getId(), result.getId());
+        assertEquals(10L, result.getLastBooking().getId());
+        assertEquals(11L, result.getNextBooking().getId());
     }
 
     @Test
@@ -181,8 +305,44 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Удаление вещи пользователем")
     void testDeleteItem() {
+        when(itemRepository.deleteByUserIdAndItemId(userId, itemId)).thenReturn(1);
         itemService.deleteItem(userId, itemId);
-        verify(itemRepository).deleteByUserIdAndItemId(userId, itemId);
+        verify(scheduleIndex).forgetItem(itemId);
+        verify(itemIndex).remove(itemId);
+    }
+
+    @Test
+    @DisplayName("Удаление чужой вещи не трогает индексы")
+    void testDeleteItem_NotOwner() {
+        itemService.deleteItem(bookerId, itemId);
+        verify(itemRepository).deleteByUserIdAndItemId(bookerId, itemId);
+        verifyNoInteractions(scheduleIndex, itemIndex);
+    }
+
+    @Test
+    @DisplayName("Календарь занятости: занятые интервалы и свободные окна")
+    void testGetAvailability() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(3);
+        TimeSlot busy = new TimeSlot(from.plusDays(1), from.plusDays(2));
+        when(scheduleIndex.isLoaded(itemId)).thenReturn(true);
+        when(scheduleIndex.busyBetween(itemId, from, to)).thenReturn(List.of(busy));
+
+        ItemAvailabilityDto result = itemService.getAvailability(itemId, from, to);
+
+        assertEquals(1, result.getBusy().size());
+        assertEquals(2, result.getFree().size());
+        assertEquals(from, result.getFree().get(0).getStart());
+        assertEquals(busy.getEnd(), result.getFree().get(1).getStart());
+        verify(itemRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Календарь занятости: вещь не найдена")
+    void testGetAvailability_NotFound() {
+        when(itemRepository.existsById(itemId)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(itemId, null, null));
     }
 
     @Test
@@ -197,12 +357,13 @@ class ItemServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(commentRepository.findByAuthorId(userId)).thenReturn(List.of(comment));
+        when(commentRepository.findByAuthorIdOrderByCreated(userId)).thenReturn(List.of(comment));
 
-        List<Comment> comments = itemService.getComments(userId);
+        List<CommentDto> comments = itemService.getComments(userId);
 
         assertEquals(1, comments.size());
-        assertEquals("Comment", comments.get(0).getDescription());
+        assertEquals("Comment", comments.get(0).getText());
+        assertEquals(user.getName(), comments.get(0).getAuthorName());
     }
 
 
@@ -217,13 +378,47 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Получение всех вещей пользователя")
     void testAllItemsFromUser() {
+        ItemDto second = ItemDto.builder().id(2L).name("Second").description("Description").available(true).build();
+        BookingShortView next = mock(BookingShortView.class);
+        when(next.getId()).thenReturn(11L);
+        when(next.getItemId()).thenReturn(2L);
+        when(next.getBookerId()).thenReturn(bookerId);
+        when(next.getStart()).thenReturn(LocalDateTime.now().plusDays(1));
+        CommentView comment = mock(CommentView.class);
+        when(comment.getItemId()).thenReturn(itemId);
+        when(comment.getText()).thenReturn("Отлично");
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findByOwnerId(userId)).thenReturn(List.of(item));
+        when(itemRepository.findDtosByOwnerId(userId, 10, 0L))
+                .thenReturn(List.of(ItemMapper.toItemDto(item), second));
+        when(bookingRepository.findLastAndNextApproved(eq(List.of(itemId, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(next));
+        when(commentRepository.findViewsByItemIdIn(List.of(itemId, 2L))).thenReturn(List.of(comment));
 
-        List<ItemDto> items = itemService.allItemsFormUser(userId);
+        List<ItemDtoBooking> items = itemService.allItemsFormUser(userId, 0, 10);
 
-        assertEquals(1, items.size());
+        assertEquals(2, items.size());
         assertEquals(item.getName(), items.get(0).getName());
+        assertEquals("Отлично", items.get(0).getComments().get(0).getText());
+        assertNull(items.get(0).getNextBooking());
+        assertEquals(11L, items.get(1).getNextBooking().getId());
+        assertTrue(items.get(1).getComments().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Получение всех вещей — from передаётся как смещение, а не номер страницы")
+    void testAllItemsFromUser_UnalignedFrom() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findDtosByOwnerId(userId, 10, 5L)).thenReturn(List.of());
+
+        assertTrue(itemService.allItemsFormUser(userId, 5, 10).isEmpty());
+        verify(itemRepository).findDtosByOwnerId(userId, 10, 5L);
+    }
+
+    @Test
+    @DisplayName("Получение всех вещей — некорректная пагинация")
+    void testAllItemsFromUser_InvalidPage() {
+        assertThrows(ValidationException.class, () -> itemService.allItemsFormUser(userId, 0, 0));
+        verify(itemRepository, never()).findDtosByOwnerId(any(), anyInt(), anyLong());
     }
 
     @Test
@@ -231,7 +426,7 @@ class ItemServiceImplTest {
     void testAllItemsFromUser_UserNotFound() {
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> itemService.allItemsFormUser(userId));
+        assertThrows(NotFoundException.class, () -> itemService.allItemsFormUser(userId, 0, 10));
     }
 
     @Test
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.cache.ItemCacheProperties;
+import ru.practicum.shareit.item.cache.ItemVersions;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemVersionsTest {
+
+    final ItemCacheProperties properties = new ItemCacheProperties();
+    final ItemVersions versions = new ItemVersions(properties);
+
+    @Test
+    @DisplayName("ETag появляется после построения карточки и меняется после изменения")
+    void etagFollowsChanges() {
+        assertNull(versions.etag(1L));
+        versions.built(1L, versions.current(1L), null);
+        String first = versions.etag(1L);
+        assertNotNull(first);
+
+        versions.changed(1L);
+        assertNull(versions.etag(1L));
+        versions.built(1L, versions.current(1L), null);
+        assertNotEquals(first, versions.etag(1L));
+        assertNull(versions.etag(2L));
+    }
+
+    @Test
+    @DisplayName("Карточка, прочитанная до изменения, не получает ETag")
+    void staleBuildIgnored() {
+        long version = versions.current(1L);
+        versions.changed(1L);
+        versions.built(1L, version, null);
+
+        assertNull(versions.etag(1L));
+    }
+
+    @Test
+    @DisplayName("ETag истекает с началом следующей брони")
+    void etagExpiresWithNextBooking() {
+        versions.built(1L, 0, LocalDateTime.now().minusSeconds(1));
+        assertNull(versions.etag(1L));
+
+        versions.built(1L, 0, LocalDateTime.now().plusDays(1));
+        assertNotNull(versions.etag(1L));
+
+        versions.forget(1L);
+        assertNull(versions.etag(1L));
+    }
+
+    @Test
+    @DisplayName("ETag истекает по TTL: изменения на другом экземпляре видны после перечитывания")
+    void etagExpiresByTtl() {
+        properties.setTtl(Duration.ZERO);
+        versions.built(1L, versions.current(1L), null);
+
+        assertNull(versions.etag(1L));
+        assertFalse(versions.isFresh(1L, versions.current(1L)));
+    }
+}
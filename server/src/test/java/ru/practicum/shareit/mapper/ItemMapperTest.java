@@ -84,13 +84,13 @@ class ItemMapperTest {
     }
 
     @Test
-    @DisplayName("mapToItemDtoBooking: bookings пустой")
-    void mapToItemDtoBooking_shouldHandleEmptyBookings() {
+    @DisplayName("toItemDtoBooking: bookings пустой")
+    void toItemDtoBooking_shouldHandleEmptyBookings() {
         Item item = Item.builder()
                 .id(1L).name("Тест").description("desc").available(true)
                 .build();
 
-        ItemDtoBooking dto = ItemMapper.mapToItemDtoBooking(item, List.of(), List.of());
+        ItemDtoBooking dto = ItemMapper.toItemDtoBooking(item, null, null, List.of());
 
         assertNotNull(dto);
         assertNull(dto.getLastBooking());
@@ -116,8 +116,8 @@ class ItemMapperTest {
     }
 
     @Test
-    @DisplayName("mapToItemDtoBooking: комментарии корректно преобразуются")
-    void mapToItemDtoBooking_shouldMapComments() {
+    @DisplayName("toItemDtoBooking: комментарии корректно преобразуются")
+    void toItemDtoBooking_shouldMapComments() {
         Item item = Item.builder()
                 .id(1L).name("Тест").description("desc").available(true)
                 .build();
@@ -130,7 +130,8 @@ class ItemMapperTest {
                 .created(LocalDateTime.now())
                 .build();
 
-        ItemDtoBooking dto = ItemMapper.mapToItemDtoBooking(item, List.of(), List.of(comment));
+        ItemDtoBooking dto = ItemMapper.toItemDtoBooking(item, null, null,
+                List.of(ItemMapper.mapToDto(comment)));
 
         assertEquals(1, dto.getComments().size());
         CommentDto commentDto = dto.getComments().get(0);
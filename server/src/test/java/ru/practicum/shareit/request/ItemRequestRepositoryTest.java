@@ -59,6 +59,7 @@ public class ItemRequestRepositoryTest {
                 .name("дрель")
                 .description("дрель ударная")
                 .available(true)
+                .ownerId(userOwner.getId())
                 .request(itemRequest)
                 .build());
     }
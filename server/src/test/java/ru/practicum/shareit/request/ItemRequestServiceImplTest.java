@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
@@ -91,17 +92,17 @@ class ItemRequestServiceImplTest {
     @Test
     @DisplayName("Получение запросов пользователя")
     void getRequestsSuccess() {
-        Item item = Item.builder()
+        ItemDto item = ItemDto.builder()
                 .id(10L)
                 .name("Drill")
                 .description("Powerful drill")
                 .available(true)
-                .request(itemRequest)
+                .requestId(requestId)
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId)).thenReturn(List.of(itemRequest));
-        when(itemRepository.findAllByRequestIdIn(List.of(requestId))).thenReturn(List.of(item));
+        when(itemRepository.findDtosByRequestIdIn(List.of(requestId))).thenReturn(List.of(item));
 
         List<ItemRequestDto> result = itemRequestService.getRequests(userId);
 
@@ -112,7 +113,7 @@ class ItemRequestServiceImplTest {
         assertEquals(1, dto.getItems().size());
 
         verify(itemRequestRepository).findByRequestorIdOrderByCreatedDesc(userId);
-        verify(itemRepository).findAllByRequestIdIn(List.of(requestId));
+        verify(itemRepository).findDtosByRequestIdIn(List.of(requestId));
     }
 
     @Test
@@ -125,16 +126,16 @@ class ItemRequestServiceImplTest {
                 .created(LocalDateTime.now())
                 .build();
 
-        Item item = Item.builder()
+        ItemDto item = ItemDto.builder()
                 .id(11L)
                 .name("Screwdriver")
                 .description("Flathead")
                 .available(true)
-                .request(otherRequest)
+                .requestId(2L)
                 .build();
 
         when(itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDesc(userId)).thenReturn(List.of(otherRequest));
-        when(itemRepository.findAllByRequestIdIn(List.of(2L))).thenReturn(List.of(item));
+        when(itemRepository.findDtosByRequestIdIn(List.of(2L))).thenReturn(List.of(item));
 
         List<ItemRequestDto> result = itemRequestService.getAllRequests(userId);
 
@@ -144,7 +145,7 @@ class ItemRequestServiceImplTest {
         assertEquals(1, result.get(0).getItems().size());
 
         verify(itemRequestRepository).findAllByRequestorIdNotOrderByCreatedDesc(userId);
-        verify(itemRepository).findAllByRequestIdIn(List.of(2L));
+        verify(itemRepository).findDtosByRequestIdIn(List.of(2L));
     }
 
     @Test
@@ -14,6 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -62,7 +63,7 @@ public class UserControllerTest {
     @DisplayName("Получение всех пользователей")
     @Test
     void getAllUsers() throws Exception {
-        when(userService.getAllUsers()).thenReturn(List.of(user, user2));
+        when(userService.getAllUsers()).thenReturn(List.of(UserMapper.toUserDto(user), UserMapper.toUserDto(user2)));
 
         mockMvc.perform(get("/users")
                         .characterEncoding(StandardCharsets.UTF_8)
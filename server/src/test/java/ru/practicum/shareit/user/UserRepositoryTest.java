@@ -10,8 +10,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -21,6 +23,7 @@ import java.util.Optional;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @ExtendWith(SpringExtension.class)
@@ -93,18 +96,31 @@ public class UserRepositoryTest {
 
         List<User> users = userRepository.findAll();
         assertThat(users.size(), equalTo(2));
+
+        List<UserDto> dtos = userRepository.findAllDtos();
+        assertThat(dtos.size(), equalTo(2));
+        assertThat(dtos.get(1).getEmail(), equalTo(request.getEmail()));
     }
 
-    @DisplayName("Поиск пользователя по email")
+    @DisplayName("Поиск пользователя по email без учёта регистра")
     @Test
     void findByEmail_shouldReturnUser() {
         manager.persistAndFlush(request);
 
-        Optional<User> found = userRepository.findByEmail(request.getEmail());
+        Optional<User> found = userRepository.findByEmailIgnoringCase("Mail@MAIL.ru");
 
         assertThat(found.isPresent(), equalTo(true));
         assertThat(found.get().getName(), equalTo(request.getName()));
         assertThat(found.get().getEmail(), equalTo(request.getEmail()));
     }
 
+    @DisplayName("Email, отличающийся только регистром, нарушает уникальный индекс")
+    @Test
+    void saveUser_duplicateEmailInOtherCase() {
+        manager.persistAndFlush(request);
+        User duplicate = User.builder().name("name2").email("MAIL@mail.ru").build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(duplicate));
+    }
+
 }
@@ -8,8 +8,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.cache.ItemVersions;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -32,6 +35,12 @@ class UserServiceImplTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    CommentRepository commentRepository;
+
+    @Mock
+    ItemVersions itemVersions;
+
     final Long userId = 1L;
     final User user = User.builder()
             .id(userId)
@@ -42,20 +51,17 @@ class UserServiceImplTest {
     @Test
     @DisplayName("Получение всех пользователей")
     void getAllUsers_success() {
-        User user2 = User.builder()
-                .id(2L)
-                .name("User 2")
-                .email("user2@example.com")
-                .build();
+        UserDto user1 = new UserDto(userId, "User 1", "user1@example.com");
+        UserDto user2 = new UserDto(2L, "User 2", "user2@example.com");
 
-        when(userRepository.findAll()).thenReturn(List.of(user, user2));
+        when(userRepository.findAllDtos()).thenReturn(List.of(user1, user2));
 
-        List<User> result = userService.getAllUsers();
+        List<UserDto> result = userService.getAllUsers();
 
         assertEquals(2, result.size());
         assertEquals("User 1", result.get(0).getName());
         assertEquals("User 2", result.get(1).getName());
-        verify(userRepository).findAll();
+        verify(userRepository).findAllDtos();
     }
 
     @Test
@@ -82,26 +88,38 @@ class UserServiceImplTest {
     @Test
     @DisplayName("Сохранение нового пользователя — успех")
     void saveUser_success() {
-        when(userRepository.findAll()).thenReturn(List.of());
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.findByEmailIgnoringCase(user.getEmail())).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
 
         User result = userService.saveUser(user);
 
         assertEquals(user.getName(), result.getName());
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
+        verify(userRepository, never()).findAll();
     }
 
     @Test
     @DisplayName("Сохранение пользователя — дубликат email")
     void saveUser_duplicateEmail() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findByEmailIgnoringCase("USER1@example.com")).thenReturn(Optional.of(user));
 
         User duplicate = User.builder()
                 .name("Another")
-                .email("user1@example.com")
+                .email("USER1@example.com")
                 .build();
 
         assertThrows(ConflictException.class, () -> userService.saveUser(duplicate));
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Сохранение пользователя — email заняли параллельно, нарушение уникального индекса")
+    void saveUser_uniqueIndexViolation() {
+        when(userRepository.findByEmailIgnoringCase(user.getEmail())).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("ux_users_email_lower"));
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> userService.saveUser(user));
+        assertEquals("Email уже используется", ex.getMessage());
     }
 
     @Test
@@ -135,8 +153,8 @@ class UserServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.findByEmail("new@mail.com")).thenReturn(Optional.empty());
-        when(userRepository.save(any())).thenReturn(
+        when(userRepository.findByEmailIgnoringCase("new@mail.com")).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(any())).thenReturn(
                 User.builder().id(userId).name("New Name").email("new@mail.com").build()
         );
 
@@ -146,6 +164,35 @@ class UserServiceImplTest {
         assertEquals("new@mail.com", result.getEmail());
     }
 
+    @Test
+    @DisplayName("Переименование автора меняет версии вещей с его комментариями")
+    void updateUser_renameBumpsCommentedItems() {
+        UserDto dto = UserDto.builder().name("Renamed").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+        when(commentRepository.findItemIdsByAuthorId(userId)).thenReturn(List.of(10L, 11L));
+
+        userService.updateUser(userId, dto);
+
+        verify(itemVersions).changed(10L);
+        verify(itemVersions).changed(11L);
+    }
+
+    @Test
+    @DisplayName("Смена одного email не трогает версии вещей")
+    void updateUser_emailOnlyKeepsVersions() {
+        UserDto dto = UserDto.builder().email("new@mail.com").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findByEmailIgnoringCase("new@mail.com")).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+
+        userService.updateUser(userId, dto);
+
+        verifyNoInteractions(commentRepository, itemVersions);
+    }
+
     @Test
     @DisplayName("Обновление пользователя — не найден")
     void updateUser_notFound() {
@@ -171,9 +218,37 @@ class UserServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.findByEmail("taken@mail.com")).thenReturn(Optional.of(otherUser));
+        when(userRepository.findByEmailIgnoringCase("taken@mail.com")).thenReturn(Optional.of(otherUser));
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> userService.updateUser(userId, dto));
+        assertEquals("Email is already taken by another user", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя — email заняли параллельно, сообщение то же, что при проверке")
+    void updateUser_uniqueIndexViolation() {
+        UserDto dto = UserDto.builder().email("taken@mail.com").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findByEmailIgnoringCase("taken@mail.com")).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("ux_users_email_lower"));
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> userService.updateUser(userId, dto));
+        assertEquals("Email is already taken by another user", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя — свой email в другом регистре")
+    void updateUser_ownEmailInOtherCase() {
+        UserDto dto = UserDto.builder().email("USER1@example.com").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findByEmailIgnoringCase("USER1@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+
+        User result = userService.updateUser(userId, dto);
 
-        assertThrows(ConflictException.class, () -> userService.updateUser(userId, dto));
+        assertEquals("USER1@example.com", result.getEmail());
     }
 
 